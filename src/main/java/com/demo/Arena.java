@@ -0,0 +1,17 @@
+package com.demo;
+
+public class Arena {
+    public final int screenWidth;
+    public final int screenHeight;
+    public final int groundY;
+
+    public Arena(int screenWidth, int screenHeight, int groundY) {
+        this.screenWidth = screenWidth;
+        this.screenHeight = screenHeight;
+        this.groundY = groundY;
+    }
+
+    public static Arena standard() {
+        return new Arena(1600, 900, 640);
+    }
+}
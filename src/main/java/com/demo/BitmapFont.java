@@ -0,0 +1,71 @@
+package com.demo;
+
+import java.awt.Color;
+import java.awt.Font;
+import java.awt.FontMetrics;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+
+public class BitmapFont {
+    private static final char FIRST = ' ';
+    private static final char LAST = '~';
+
+    private final Font font;
+    private final Color color;
+    private final FontMetrics metrics;
+    private final BufferedImage[] glyphs = new BufferedImage[LAST - FIRST + 1];
+    private final int padding;
+
+    public BitmapFont(Font font, Color color) {
+        this.font = font;
+        this.color = color;
+        BufferedImage scratch = new BufferedImage(1, 1, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D g2 = scratch.createGraphics();
+        this.metrics = g2.getFontMetrics(font);
+        g2.dispose();
+        this.padding = Math.max(2, font.getSize() / 8);
+    }
+
+    public void preload(String text) {
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c > FIRST && c <= LAST) glyph(c);
+        }
+    }
+
+    public int getWidth(char[] text, int length) {
+        int width = 0;
+        for (int i = 0; i < length; i++) {
+            width += metrics.charWidth(text[i]);
+        }
+        return width;
+    }
+
+    public void draw(Graphics2D g2, char[] text, int length, int x, int baseline) {
+        int top = baseline - metrics.getAscent() - padding;
+        for (int i = 0; i < length; i++) {
+            char c = text[i];
+            if (c > FIRST && c <= LAST) {
+                g2.drawImage(glyph(c), x - padding, top, null);
+            }
+            x += metrics.charWidth(c);
+        }
+    }
+
+    private BufferedImage glyph(char c) {
+        BufferedImage glyph = glyphs[c - FIRST];
+        if (glyph == null) {
+            glyph = new BufferedImage(metrics.charWidth(c) + 2 * padding, metrics.getHeight() + 2 * padding,
+                    BufferedImage.TYPE_INT_ARGB);
+            Graphics2D g2 = glyph.createGraphics();
+            g2.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+            g2.setFont(font);
+            g2.setColor(color);
+            g2.drawString(String.valueOf(c), padding, padding + metrics.getAscent());
+            g2.dispose();
+            glyphs[c - FIRST] = glyph;
+        }
+        return glyph;
+    }
+}
@@ -0,0 +1,103 @@
+package com.demo;
+
+public class FrameGovernor {
+    public enum Level {
+        FULL, FEWER_LEAVES, NO_ANTIALIASING, LOW_RESOLUTION, DEFERRED_LEARNING
+    }
+
+    private static final Level[] LEVELS = Level.values();
+
+    private final long budgetNanos;
+    private final double overloadRatio;
+    private final double headroomRatio;
+    private final int escalateFrames;
+    private final int restoreFrames;
+
+    private final long[] frameTimes;
+    private int frameIndex = 0;
+    private int frameCount = 0;
+    private long frameSum = 0;
+
+    private volatile Level level = Level.FULL;
+    private int overloadedFrames = 0;
+    private int headroomFrames = 0;
+    private long levelChanges = 0;
+
+    public FrameGovernor(long budgetNanos) {
+        this(budgetNanos, 0.9, 0.5, 30, 180, 30);
+    }
+
+    public FrameGovernor(long budgetNanos, double overloadRatio, double headroomRatio,
+                         int escalateFrames, int restoreFrames, int windowSize) {
+        this.budgetNanos = budgetNanos;
+        this.overloadRatio = overloadRatio;
+        this.headroomRatio = headroomRatio;
+        this.escalateFrames = escalateFrames;
+        this.restoreFrames = restoreFrames;
+        this.frameTimes = new long[windowSize];
+    }
+
+    public boolean recordFrame(long frameNanos) {
+        frameSum += frameNanos - frameTimes[frameIndex];
+        frameTimes[frameIndex] = frameNanos;
+        frameIndex = (frameIndex + 1) % frameTimes.length;
+        if (frameCount < frameTimes.length) frameCount++;
+
+        long mean = frameSum / frameCount;
+        if (mean > budgetNanos * overloadRatio) {
+            overloadedFrames++;
+            headroomFrames = 0;
+        } else if (mean < budgetNanos * headroomRatio) {
+            headroomFrames++;
+            overloadedFrames = 0;
+        } else {
+            overloadedFrames = 0;
+            headroomFrames = 0;
+        }
+
+        if (overloadedFrames >= escalateFrames && level.ordinal() < LEVELS.length - 1) {
+            setLevel(LEVELS[level.ordinal() + 1]);
+            return true;
+        }
+        if (headroomFrames >= restoreFrames && level.ordinal() > 0) {
+            setLevel(LEVELS[level.ordinal() - 1]);
+            return true;
+        }
+        return false;
+    }
+
+    private void setLevel(Level newLevel) {
+        level = newLevel;
+        levelChanges++;
+        overloadedFrames = 0;
+        headroomFrames = 0;
+    }
+
+    public boolean isShedding(Level shed) {
+        return level.ordinal() >= shed.ordinal();
+    }
+
+    public long getBudgetNanos() {
+        return budgetNanos;
+    }
+
+    public Level getLevel() {
+        return level;
+    }
+
+    public long getLevelChanges() {
+        return levelChanges;
+    }
+
+    public double getMeanFrameMillis() {
+        return frameCount == 0 ? 0 : frameSum / (double) frameCount / 1_000_000.0;
+    }
+
+    public double getMaxFrameMillis() {
+        long max = 0;
+        for (int i = 0; i < frameCount; i++) {
+            if (frameTimes[i] > max) max = frameTimes[i];
+        }
+        return max / 1_000_000.0;
+    }
+}
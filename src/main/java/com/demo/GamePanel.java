@@ -3,18 +3,26 @@ package com.demo;
 import javax.imageio.ImageIO;
 import javax.swing.JPanel;
 
+import com.demo.ai.CheckpointLog;
+import com.demo.ai.LookupTablePolicy;
+import com.demo.ai.NeuralNetwork;
+import com.demo.ai.SharedWeights;
+import com.demo.ai.TrainingTelemetry;
+import com.demo.ai.TransitionRecorder;
 import com.demo.entity.AIPlayer;
+import com.demo.entity.Difficulty;
+import com.demo.entity.Fighter;
+import com.demo.entity.LookaheadPlanner;
 import com.demo.entity.Player;
+import com.demo.entity.ScriptedFighter;
+import com.demo.jfr.TickEvent;
 
 import java.awt.Color;
 import java.awt.Dimension;
-import java.awt.Font;
 import java.awt.Graphics;
 import java.awt.Graphics2D;
-import java.awt.Rectangle;
-import java.awt.RenderingHints;
-import java.awt.geom.AffineTransform;
 import java.awt.image.BufferedImage;
+import java.io.File;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Random;
@@ -29,25 +37,37 @@ public class GamePanel extends JPanel implements Runnable {
     public int screenWidth = 1600;
     public int screenHeight = 900;
     public int groundY;
+    private Arena arena;
 
-    Player player;
+    Fighter player;
     AIPlayer aiPlayer;
+    private Match match;
+    private TrainingTelemetry telemetry;
+    private SpectatorServer spectators;
 
     private int currentFPS = 0;
     private int frameCount = 0;
     private long lastFPSTime = 0;
-    
-    private int roundDelay = 0;
-    private boolean roundOver = false;
-    private String roundMessage = "";
-    private int playerWins = 0;
-    private int aiWins = 0;
+    private final TickEvent tickEvent = new TickEvent();
     
     private boolean showHitboxes = true; 
 
     private ArrayList<Leaf> leaves = new ArrayList<>();
     private Random random = new Random();
     private final int MAX_LEAVES = 60;
+    private final int THINNED_LEAVES = 20;
+    private volatile int activeLeaves = MAX_LEAVES;
+
+    private final FrameGovernor governor = new FrameGovernor(1_000_000_000L / 60);
+    private volatile long lastPaintNanos = 0;
+    private long lastLeavesNanos = 0;
+    private long lastMatchNanos = 0;
+    private final RenderSnapshotBuffer snapshots = new RenderSnapshotBuffer(MAX_LEAVES);
+    private SceneRenderer sceneRenderer;
+    private long ticks = 0;
+    private RenderTarget renderTarget;
+    private RenderTarget governorTarget;
+    private final long idleTrainingNanos = Integer.getInteger("betterenemy.idleBudgetMicros", 6000) * 1000L;
 
     public GamePanel() {
         this.setPreferredSize(new Dimension(screenWidth, screenHeight));
@@ -56,12 +76,85 @@ public class GamePanel extends JPanel implements Runnable {
         this.setFocusable(true);
 
         groundY = 640;
+        arena = new Arena(screenWidth, screenHeight, groundY);
+
+        String seed = System.getProperty("betterenemy.seed");
+        if (seed != null) {
+            random = new Random(Long.parseLong(seed));
+        }
+
+        String opponentFile = System.getProperty("betterenemy.opponent");
+        NeuralNetwork opponentBrain = opponentFile != null ? NeuralNetwork.load(opponentFile) : null;
+        String script = System.getProperty("betterenemy.scriptedPlayer");
+        if (opponentBrain != null) {
+            player = createCheckpointOpponent(opponentBrain);
+        } else if (script != null) {
+            player = new ScriptedFighter(arena, ScriptedFighter.Script.valueOf(script), random.nextLong());
+        } else {
+            player = new Player(arena, keyHandler);
+        }
+        Difficulty difficulty = Difficulty.valueOf(System.getProperty("betterenemy.difficulty", "NORMAL"));
+        aiPlayer = new AIPlayer(arena, player, difficulty);
+        if (seed != null) {
+            aiPlayer.setSeed(random.nextLong());
+        }
+        telemetry = TrainingTelemetry.open(System.getProperty("betterenemy.telemetry", "telemetry"), 6);
+        aiPlayer.setTelemetry(telemetry);
+        String transitionDir = System.getProperty("betterenemy.transitions");
+        if (transitionDir != null) {
+            aiPlayer.setTransitionRecorder(TransitionRecorder.open(transitionDir, aiPlayer.getBrain().getInputSize()));
+        }
+        CheckpointLog checkpointLog = CheckpointLog.open(System.getProperty("betterenemy.checkpointLog", "checkpoints"),
+                Integer.getInteger("betterenemy.checkpointBaseInterval", 10));
+        checkpointLog.setMirrorFile(System.getProperty("betterenemy.brainMirror", "ai_brain.dat"));
+        aiPlayer.setCheckpointLog(checkpointLog);
+        aiPlayer.setPlanner(LookaheadPlanner.fromProperties(arena));
+        aiPlayer.setIdleTraining(Integer.getInteger("betterenemy.idleSweeps", 0), 4096);
+        aiPlayer.setDeferredBudget(Integer.getInteger("betterenemy.deferredBudgetMicros", 1000) * 1000L);
+        String sharedFile = System.getProperty("betterenemy.sharedWeights");
+        if (sharedFile != null) {
+            aiPlayer.setLearning(false);
+            aiPlayer.setWeightSync(SharedWeights.open(new File(sharedFile), aiPlayer.getBrain()), 1);
+        } else if (!Boolean.getBoolean("betterenemy.syncLearning")) {
+            aiPlayer.startAsyncLearning();
+        }
+        String policyFile = System.getProperty("betterenemy.policy");
+        if (policyFile != null) {
+            aiPlayer.setDistilledPolicy(LookupTablePolicy.load(policyFile));
+        }
+        if (player instanceof AIPlayer) {
+            ((AIPlayer) player).setOpponent(aiPlayer);
+        } else if (player instanceof ScriptedFighter) {
+            ((ScriptedFighter) player).setOpponent(aiPlayer);
+        }
+        match = new Match(player, aiPlayer, 180);
+        spectators = SpectatorServer.fromProperties();
 
-        player = new Player(this, keyHandler);
-        aiPlayer = new AIPlayer(this, player);
+        String resolution = System.getProperty("betterenemy.renderResolution");
+        if (resolution != null) {
+            renderTarget = RenderTarget.parse(resolution, screenWidth, screenHeight);
+        }
+        governorTarget = new RenderTarget(screenWidth / 2, screenHeight / 2, screenWidth, screenHeight);
 
         init();
         initLeaves();
+        sceneRenderer = new SceneRenderer(screenWidth, screenHeight, backgroundImage, floorImage);
+        sceneRenderer.preload(player);
+        sceneRenderer.preload(aiPlayer);
+        for (Color color : Leaf.COLORS) {
+            for (int size = Leaf.MIN_SIZE; size <= Leaf.MAX_SIZE; size++) {
+                sceneRenderer.preloadLeaves(color, size);
+            }
+        }
+        publishSnapshot();
+    }
+
+    private AIPlayer createCheckpointOpponent(NeuralNetwork brain) {
+        AIPlayer opponent = new AIPlayer(arena, null, Difficulty.NORMAL, brain);
+        opponent.setLearning(false);
+        opponent.setEpsilon(0.05);
+        opponent.placeOnLeft();
+        return opponent;
     }
 
     private void init() {
@@ -75,230 +168,120 @@ public class GamePanel extends JPanel implements Runnable {
 
     private void initLeaves() {
         for (int i = 0; i < MAX_LEAVES; i++) {
-            leaves.add(new Leaf(random.nextInt(screenWidth), random.nextInt(screenHeight - 100)));
+            leaves.add(new Leaf(random.nextInt(screenWidth), random.nextInt(screenHeight - 100), new Random(random.nextLong())));
         }
     }
 
     public void update() {
+        long start = System.nanoTime();
         updateLeaves();
-
-        if (roundOver) {
-            roundDelay--;
-            if (roundDelay <= 0) {
-                resetRound();
-            }
-            return;
+        long leavesDone = System.nanoTime();
+        if (match.isRoundOver()) {
+            aiPlayer.setIdleBudget(Math.min(idleTrainingNanos,
+                    (governor.getBudgetNanos() - lastPaintNanos - lastLeavesNanos) / 2));
         }
-        
-        player.update();
-        aiPlayer.update();
-        
-        checkCombat();
-        checkRoundEnd();
+        match.update();
+        lastLeavesNanos = leavesDone - start;
+        lastMatchNanos = System.nanoTime() - leavesDone;
+        publishSnapshot();
     }
 
-    private void updateLeaves() {
-        for (Leaf leaf : leaves) {
-            leaf.update(screenWidth, screenHeight);
+    private void publishSnapshot() {
+        RenderSnapshot snapshot = snapshots.back();
+        player.capture(snapshot.left);
+        aiPlayer.capture(snapshot.right);
+
+        int count = activeLeaves;
+        for (int i = 0; i < count; i++) {
+            Leaf leaf = leaves.get(i);
+            snapshot.leafX[i] = leaf.x;
+            snapshot.leafY[i] = leaf.y;
+            snapshot.leafAngle[i] = leaf.angle;
+            snapshot.leafSize[i] = leaf.size;
+            snapshot.leafColor[i] = leaf.color;
         }
-    }
-    
-    private void checkCombat() {
-        Rectangle playerAttack = player.getAttackHitbox();
-        Rectangle aiHitbox = aiPlayer.getHitbox();
-        
-        if (playerAttack != null && aiHitbox != null) {
-            if (playerAttack.intersects(aiHitbox)) {
-                int damage = player.getAttackDamage();
-                aiPlayer.takeHit(damage);
-                player.setAttackHit(true);
-            }
-        }
-        
-        Rectangle aiAttack = aiPlayer.getAttackHitbox();
-        Rectangle playerHitbox = player.getHitbox();
-        
-        if (aiAttack != null && playerHitbox != null) {
-            if (aiAttack.intersects(playerHitbox)) {
-                int damage = aiPlayer.getAttackDamage();
-                player.takeHit(damage);
-                aiPlayer.setAttackHit(true);
-            }
+        snapshot.leafCount = count;
+
+        snapshot.tick = ++ticks;
+        snapshot.roundOver = match.isRoundOver();
+        snapshot.rightWon = match.getLastWinner() == aiPlayer;
+        snapshot.roundDelay = match.getRoundDelay();
+        snapshot.leftWins = match.getLeftWins();
+        snapshot.rightWins = match.getRightWins();
+        if (spectators != null) {
+            spectators.publish(snapshot);
         }
+        snapshots.publish();
     }
-    
-    private void checkRoundEnd() {
-        if (player.health <= 0) {
-            roundOver = true;
-            roundDelay = 180;
-            roundMessage = "AI WINS!";
-            aiWins++;
-            aiPlayer.onRoundEnd(true);
-        } else if (aiPlayer.health <= 0) {
-            roundOver = true;
-            roundDelay = 180;
-            roundMessage = "PLAYER WINS!";
-            playerWins++;
-            aiPlayer.onRoundEnd(false);
+
+    private void updateLeaves() {
+        int count = activeLeaves;
+        for (int i = 0; i < count; i++) {
+            leaves.get(i).update(screenWidth, screenHeight);
         }
     }
-    
-    private void resetRound() {
-        roundOver = false;
-        roundMessage = "";
-        player.reset();
-        aiPlayer.reset();
-    }
 
+    private void applyGovernor(long frameNanos) {
+        governor.recordFrame(frameNanos);
+
+        activeLeaves = governor.isShedding(FrameGovernor.Level.FEWER_LEAVES) ? THINNED_LEAVES : MAX_LEAVES;
+        aiPlayer.setLearningDeferred(governor.isShedding(FrameGovernor.Level.DEFERRED_LEARNING) && !match.isRoundOver());
+        telemetry.updateFrameMetrics(governor.getLevel().ordinal(), governor.getMeanFrameMillis(),
+                governor.getMaxFrameMillis(), governor.getLevelChanges());
+    }
+    
     @Override
     protected void paintComponent(Graphics g) {
         super.paintComponent(g);
-        Graphics2D g2 = (Graphics2D) g;
+        renderFrame((Graphics2D) g);
+    }
 
-        g2.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING,
-                RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
-        g2.setRenderingHint(RenderingHints.KEY_ANTIALIASING,
-                RenderingHints.VALUE_ANTIALIAS_ON);
+    public void renderFrame(Graphics2D g2) {
+        long start = System.nanoTime();
 
-        if (backgroundImage != null) {
-            g2.drawImage(backgroundImage, 0, 0, screenWidth, screenHeight, null);
-        } else {
-            g2.setColor(new Color(50, 50, 80));
-            g2.fillRect(0, 0, screenWidth, screenHeight);
+        RenderTarget target = renderTarget;
+        if (governor.isShedding(FrameGovernor.Level.LOW_RESOLUTION)
+                && (target == null || target.getWidth() > governorTarget.getWidth())) {
+            target = governorTarget;
         }
 
-        drawLeaves(g2);
-        
-        player.draw(g2);
-        aiPlayer.draw(g2);
-
-        
-
-        if (floorImage != null) {
-            g2.drawImage(floorImage, 0, screenHeight - floorImage.getHeight(), screenWidth, floorImage.getHeight(), null);
+        RenderSnapshot snapshot = snapshots.acquire();
+        boolean fullQuality = !governor.isShedding(FrameGovernor.Level.NO_ANTIALIASING);
+        if (target != null) {
+            sceneRenderer.draw(target.begin(), snapshot, fullQuality, showHitboxes);
+            target.present(g2);
         } else {
-            g2.setColor(new Color(50, 50, 80));
-            g2.fillRect(0, 0, screenWidth, screenHeight);
+            sceneRenderer.draw(g2, snapshot, fullQuality, showHitboxes);
         }
 
-        
-        
-        if (showHitboxes) {
-            drawHitboxes(g2);
-        }
-        
-        drawHealthBars(g2);
-        
-        if (roundOver) {
-            drawRoundMessage(g2);
-        }
+        lastPaintNanos = System.nanoTime() - start;
     }
 
-    private void drawLeaves(Graphics2D g2) {
-        AffineTransform originalTransform = g2.getTransform();
-
-        for (Leaf leaf : leaves) {
-            g2.setColor(leaf.color);
-            
-            g2.translate(leaf.x, leaf.y);
-            g2.rotate(Math.toRadians(leaf.angle));
-            
-            g2.fillRect(0, 0, leaf.size, leaf.size);
-            
-            g2.setTransform(originalTransform);
-        }
-    }
-    
-    private void drawHitboxes(Graphics2D g2) {
-    
-    Rectangle pBody = player.getHitbox();
-    if (pBody != null) {
-        g2.setColor(new Color(0, 255, 0, 80));
-        g2.fillRect(pBody.x, pBody.y, pBody.width, pBody.height);
-        g2.setColor(Color.GREEN);
-        g2.setStroke(new java.awt.BasicStroke(2));
-        g2.drawRect(pBody.x, pBody.y, pBody.width, pBody.height);
-    }
-    
-    Rectangle pAttack = player.getAttackHitbox();
-        if (pAttack != null) {
-            g2.setColor(new Color(255, 0, 0, 120));
-            g2.fillRect(pAttack.x, pAttack.y, pAttack.width, pAttack.height);
-            g2.setColor(Color.RED);
-            g2.setStroke(new java.awt.BasicStroke(3));
-            g2.drawRect(pAttack.x, pAttack.y, pAttack.width, pAttack.height);
+    public void runFrame() {
+        TickEvent tick = tickEvent;
+        tick.begin();
+        long frameStart = System.nanoTime();
+        update();
+        long updateNanos = System.nanoTime() - frameStart;
+        repaint();
+        applyGovernor(updateNanos + lastPaintNanos);
+        tick.end();
+        if (tick.shouldCommit()) {
+            tick.leavesNanos = lastLeavesNanos;
+            tick.matchNanos = lastMatchNanos;
+            tick.paintNanos = lastPaintNanos;
+            tick.governorLevel = governor.getLevel().name();
+            tick.commit();
         }
 
-        Rectangle aiBody = aiPlayer.getHitbox();
-        if (aiBody != null) {
-            g2.setColor(new Color(0, 255, 255, 80));
-            g2.fillRect(aiBody.x, aiBody.y, aiBody.width, aiBody.height);
-            g2.setColor(Color.CYAN);
-            g2.setStroke(new java.awt.BasicStroke(2));
-            g2.drawRect(aiBody.x, aiBody.y, aiBody.width, aiBody.height);
-        }
-        
-        Rectangle aiAttack = aiPlayer.getAttackHitbox();
-        if (aiAttack != null) {
-            g2.setColor(new Color(255, 165, 0, 120));
-            g2.fillRect(aiAttack.x, aiAttack.y, aiAttack.width, aiAttack.height);
-            g2.setColor(Color.ORANGE);
-            g2.setStroke(new java.awt.BasicStroke(3));
-            g2.drawRect(aiAttack.x, aiAttack.y, aiAttack.width, aiAttack.height);
+        frameCount++;
+        long currentTime = System.currentTimeMillis();
+
+        if (currentTime - lastFPSTime >= 1000) {
+            currentFPS = frameCount;
+            frameCount = 0;
+            lastFPSTime = currentTime;
         }
-        
-        g2.setStroke(new java.awt.BasicStroke(1));
-    }
-    
-    private void drawHealthBars(Graphics2D g2) {
-        int barWidth = 400;
-        int barHeight = 30;
-        int margin = 50;
-        int yPos = 30;
-        
-        g2.setColor(Color.DARK_GRAY);
-        g2.fillRoundRect(margin, yPos, barWidth, barHeight, 10, 10);
-        
-        g2.setColor(new Color(220, 50, 50));
-        int playerHealthWidth = (int) ((player.health / 100.0) * (barWidth - 4));
-        g2.fillRoundRect(margin + 2, yPos + 2, Math.max(0, playerHealthWidth), barHeight - 4, 8, 8);
-        
-        g2.setColor(Color.WHITE);
-        g2.setFont(new Font("Arial", Font.BOLD, 16));
-        g2.drawString("PLAYER: " + player.health + " HP", margin + 10, yPos + 22);
-        
-        int aiBarX = screenWidth - margin - barWidth;
-        g2.setColor(Color.DARK_GRAY);
-        g2.fillRoundRect(aiBarX, yPos, barWidth, barHeight, 10, 10);
-        
-        g2.setColor(new Color(50, 150, 220));
-        int aiHealthWidth = (int) ((aiPlayer.health / 100.0) * (barWidth - 4));
-        g2.fillRoundRect(aiBarX + barWidth - 2 - Math.max(0, aiHealthWidth), yPos + 2, Math.max(0, aiHealthWidth), barHeight - 4, 8, 8);
-        
-        g2.setColor(Color.WHITE);
-        String aiText = "AI: " + aiPlayer.health + " HP";
-        int textWidth = g2.getFontMetrics().stringWidth(aiText);
-        g2.drawString(aiText, aiBarX + barWidth - textWidth - 10, yPos + 22);
-        
-        g2.setFont(new Font("Arial", Font.BOLD, 24));
-        String score = playerWins + " - " + aiWins;
-        int scoreWidth = g2.getFontMetrics().stringWidth(score);
-        g2.drawString(score, (screenWidth - scoreWidth) / 2, yPos + 22);
-    }
-    
-    private void drawRoundMessage(Graphics2D g2) {
-        g2.setColor(new Color(0, 0, 0, 150));
-        g2.fillRect(0, screenHeight/2 - 60, screenWidth, 120);
-        
-        g2.setFont(new Font("Arial", Font.BOLD, 72));
-        g2.setColor(Color.WHITE);
-        int textWidth = g2.getFontMetrics().stringWidth(roundMessage);
-        g2.drawString(roundMessage, (screenWidth - textWidth) / 2, screenHeight/2 + 20);
-        
-        g2.setFont(new Font("Arial", Font.PLAIN, 24));
-        String subMessage = "Next round in " + (roundDelay / 60 + 1) + "...";
-        int subWidth = g2.getFontMetrics().stringWidth(subMessage);
-        g2.drawString(subMessage, (screenWidth - subWidth) / 2, screenHeight/2 + 50);
     }
 
     @Override
@@ -309,17 +292,7 @@ public class GamePanel extends JPanel implements Runnable {
         lastFPSTime = System.currentTimeMillis();
 
         while (gameThread != null) {
-            update();
-            repaint();
-
-            frameCount++;
-            long currentTime = System.currentTimeMillis();
-
-            if (currentTime - lastFPSTime >= 1000) {
-                currentFPS = frameCount;
-                frameCount = 0;
-                lastFPSTime = currentTime;
-            }
+            runFrame();
 
             try {
                 double remainingTime = (nextDrawTime - System.nanoTime()) / 1000000;
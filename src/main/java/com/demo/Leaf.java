@@ -4,6 +4,12 @@ import java.awt.Color;
 import java.util.Random;
 
 public class Leaf {
+    static final int MIN_SIZE = 4;
+    static final int MAX_SIZE = 8;
+    static final Color[] COLORS = {
+        new Color(50, 100, 70), new Color(30, 60, 40), new Color(70, 120, 90)
+    };
+
     public double x, y;
     public double speedX, speedY;
     public double angle;
@@ -11,9 +17,14 @@ public class Leaf {
     public int size;
     public Color color;
     
-    private Random random = new Random();
+    private final Random random;
 
     public Leaf(double startX, double startY) {
+        this(startX, startY, new Random());
+    }
+
+    public Leaf(double startX, double startY, Random random) {
+        this.random = random;
         reset(startX, startY);
     }
 
@@ -37,11 +48,8 @@ public class Leaf {
         this.angle = random.nextDouble() * 360;
         this.rotationSpeed = -2 + random.nextDouble() * 4;
         
-        this.size = 4 + random.nextInt(5);
+        this.size = MIN_SIZE + random.nextInt(MAX_SIZE - MIN_SIZE + 1);
         
-        int colorType = random.nextInt(3);
-        if (colorType == 0) this.color = new Color(50, 100, 70); 
-        else if (colorType == 1) this.color = new Color(30, 60, 40);
-        else this.color = new Color(70, 120, 90); 
+        this.color = COLORS[random.nextInt(COLORS.length)];
     }
 }
\ No newline at end of file
@@ -0,0 +1,124 @@
+package com.demo;
+
+import java.awt.Rectangle;
+
+import com.demo.entity.Fighter;
+
+public class Match {
+    private final Fighter left;
+    private final Fighter right;
+    private final int roundDelayTicks;
+    private int roundTimeLimit = 0;
+    private int roundTicks = 0;
+
+    private boolean roundOver = false;
+    private int roundDelay = 0;
+    private Fighter lastWinner;
+    private int leftWins = 0;
+    private int rightWins = 0;
+
+    public Match(Fighter left, Fighter right, int roundDelayTicks) {
+        this.left = left;
+        this.right = right;
+        this.roundDelayTicks = roundDelayTicks;
+    }
+
+    public void update() {
+        if (roundOver) {
+            roundDelay--;
+            if (roundDelay <= 0) {
+                resetRound();
+            } else {
+                left.onIdleTick();
+                right.onIdleTick();
+            }
+            return;
+        }
+
+        roundTicks++;
+        left.update();
+        right.update();
+
+        checkCombat();
+        checkRoundEnd();
+    }
+
+    private void checkCombat() {
+        checkCombat(left, right);
+    }
+
+    public static void checkCombat(Fighter left, Fighter right) {
+        checkHit(left, right);
+        checkHit(right, left);
+    }
+
+    private static void checkHit(Fighter attacker, Fighter defender) {
+        Rectangle attack = attacker.getAttackHitbox();
+        Rectangle hitbox = defender.getHitbox();
+
+        if (attack != null && hitbox != null) {
+            if (attack.intersects(hitbox)) {
+                int damage = attacker.getAttackDamage();
+                defender.takeHit(damage);
+                attacker.setAttackHit(true);
+            }
+        }
+    }
+
+    private void checkRoundEnd() {
+        if (left.health <= 0) {
+            endRound(right, left);
+            rightWins++;
+        } else if (right.health <= 0) {
+            endRound(left, right);
+            leftWins++;
+        } else if (roundTimeLimit > 0 && roundTicks >= roundTimeLimit) {
+            timeOut();
+        }
+    }
+
+    private void timeOut() {
+        if (left.health > right.health) {
+            endRound(left, right);
+            leftWins++;
+        } else if (right.health > left.health) {
+            endRound(right, left);
+            rightWins++;
+        } else {
+            roundOver = true;
+            roundDelay = roundDelayTicks;
+            lastWinner = null;
+            left.onRoundEnd(false);
+            right.onRoundEnd(false);
+        }
+    }
+
+    private void endRound(Fighter winner, Fighter loser) {
+        roundOver = true;
+        roundDelay = roundDelayTicks;
+        lastWinner = winner;
+        winner.onRoundEnd(true);
+        loser.onRoundEnd(false);
+    }
+
+    private void resetRound() {
+        roundOver = false;
+        roundTicks = 0;
+        lastWinner = null;
+        left.reset();
+        right.reset();
+    }
+
+    public void setRoundTimeLimit(int roundTimeLimit) {
+        this.roundTimeLimit = roundTimeLimit;
+    }
+
+    public Fighter getLeft() { return left; }
+    public Fighter getRight() { return right; }
+    public boolean isRoundOver() { return roundOver; }
+    public int getRoundDelay() { return roundDelay; }
+    public Fighter getLastWinner() { return lastWinner; }
+    public int getLeftWins() { return leftWins; }
+    public int getRightWins() { return rightWins; }
+    public int getRoundTicks() { return roundTicks; }
+}
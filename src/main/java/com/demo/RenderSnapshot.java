@@ -0,0 +1,46 @@
+package com.demo;
+
+import java.awt.Color;
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+
+public class RenderSnapshot {
+    public static class FighterView {
+        public String spritePath;
+        public int sheet;
+        public int frame;
+        public BufferedImage image;
+        public int x, y, width, height;
+        public boolean facingRight;
+        public int health;
+        public boolean hasHitbox;
+        public final Rectangle hitbox = new Rectangle();
+        public boolean hasAttackHitbox;
+        public final Rectangle attackHitbox = new Rectangle();
+    }
+
+    public final FighterView left = new FighterView();
+    public final FighterView right = new FighterView();
+
+    public int leafCount;
+    public final double[] leafX;
+    public final double[] leafY;
+    public final double[] leafAngle;
+    public final int[] leafSize;
+    public final Color[] leafColor;
+
+    public long tick;
+    public boolean roundOver;
+    public boolean rightWon;
+    public int roundDelay;
+    public int leftWins;
+    public int rightWins;
+
+    public RenderSnapshot(int maxLeaves) {
+        leafX = new double[maxLeaves];
+        leafY = new double[maxLeaves];
+        leafAngle = new double[maxLeaves];
+        leafSize = new int[maxLeaves];
+        leafColor = new Color[maxLeaves];
+    }
+}
@@ -0,0 +1,34 @@
+package com.demo;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class RenderSnapshotBuffer {
+    private static final int INDEX_MASK = 3;
+    private static final int FRESH = 4;
+
+    private final RenderSnapshot[] snapshots;
+    private final AtomicInteger middle = new AtomicInteger(1);
+    private int back = 0;
+    private int front = 2;
+
+    public RenderSnapshotBuffer(int maxLeaves) {
+        snapshots = new RenderSnapshot[] {
+            new RenderSnapshot(maxLeaves), new RenderSnapshot(maxLeaves), new RenderSnapshot(maxLeaves)
+        };
+    }
+
+    public RenderSnapshot back() {
+        return snapshots[back];
+    }
+
+    public void publish() {
+        back = middle.getAndSet(back | FRESH) & INDEX_MASK;
+    }
+
+    public RenderSnapshot acquire() {
+        if ((middle.get() & FRESH) != 0) {
+            front = middle.getAndSet(front) & INDEX_MASK;
+        }
+        return snapshots[front];
+    }
+}
@@ -0,0 +1,69 @@
+package com.demo;
+
+import java.awt.Graphics2D;
+import java.awt.GraphicsEnvironment;
+import java.awt.RenderingHints;
+import java.awt.Transparency;
+import java.awt.image.BufferedImage;
+
+public class RenderTarget {
+    private final int width;
+    private final int height;
+    private final int screenWidth;
+    private final int screenHeight;
+    private final int scale;
+    private BufferedImage image;
+    private Graphics2D graphics;
+
+    public RenderTarget(int width, int height, int screenWidth, int screenHeight) {
+        if (width <= 0 || height <= 0 || width > screenWidth || height > screenHeight) {
+            throw new IllegalArgumentException("Invalid internal resolution " + width + "x" + height);
+        }
+        this.width = width;
+        this.height = height;
+        this.screenWidth = screenWidth;
+        this.screenHeight = screenHeight;
+        this.scale = Math.min(screenWidth / width, screenHeight / height);
+    }
+
+    public static RenderTarget parse(String resolution, int screenWidth, int screenHeight) {
+        String[] parts = resolution.toLowerCase().split("x");
+        if (parts.length != 2) {
+            throw new IllegalArgumentException("Resolution must look like 800x450: " + resolution);
+        }
+        return new RenderTarget(Integer.parseInt(parts[0].trim()), Integer.parseInt(parts[1].trim()),
+                screenWidth, screenHeight);
+    }
+
+    public Graphics2D begin() {
+        if (graphics == null) {
+            image = createImage();
+            graphics = image.createGraphics();
+            graphics.scale((double) width / screenWidth, (double) height / screenHeight);
+        }
+        return graphics;
+    }
+
+    public void present(Graphics2D g2) {
+        int outputWidth = width * scale;
+        int outputHeight = height * scale;
+        int x = (screenWidth - outputWidth) / 2;
+        int y = (screenHeight - outputHeight) / 2;
+
+        g2.setRenderingHint(RenderingHints.KEY_INTERPOLATION,
+                RenderingHints.VALUE_INTERPOLATION_NEAREST_NEIGHBOR);
+        g2.drawImage(image, x, y, outputWidth, outputHeight, null);
+    }
+
+    private BufferedImage createImage() {
+        if (!GraphicsEnvironment.isHeadless()) {
+            return GraphicsEnvironment.getLocalGraphicsEnvironment().getDefaultScreenDevice()
+                    .getDefaultConfiguration().createCompatibleImage(width, height, Transparency.OPAQUE);
+        }
+        return new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+    }
+
+    public int getWidth() { return width; }
+    public int getHeight() { return height; }
+    public int getScale() { return scale; }
+}
@@ -0,0 +1,369 @@
+package com.demo;
+
+import java.awt.Color;
+import java.awt.Font;
+import java.awt.Graphics2D;
+import java.awt.Rectangle;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.util.IdentityHashMap;
+
+import com.demo.entity.Fighter;
+
+public class SceneRenderer {
+    private static final Color BACKDROP = new Color(50, 50, 80);
+    private static final Color PLAYER_BODY = new Color(0, 255, 0, 80);
+    private static final Color PLAYER_ATTACK = new Color(255, 0, 0, 120);
+    private static final Color AI_BODY = new Color(0, 255, 255, 80);
+    private static final Color AI_ATTACK = new Color(255, 165, 0, 120);
+    private static final Color PLAYER_HEALTH = new Color(220, 50, 50);
+    private static final Color AI_HEALTH = new Color(50, 150, 220);
+    private static final Color OVERLAY = new Color(0, 0, 0, 150);
+
+    private static final int BAR_WIDTH = 400;
+    private static final int BAR_HEIGHT = 30;
+    private static final int LEAF_ANGLE_STEP = 5;
+    private static final int LEAF_ANGLES = 360 / LEAF_ANGLE_STEP;
+
+    private final int screenWidth;
+    private final int screenHeight;
+    private final BufferedImage backgroundImage;
+    private final BufferedImage floorImage;
+    private final BufferedImage barFrame;
+    private final BufferedImage playerBar;
+    private final BufferedImage aiBar;
+
+    private final BitmapFont healthFont = new BitmapFont(new Font("Arial", Font.BOLD, 16), Color.WHITE);
+    private final BitmapFont scoreFont = new BitmapFont(new Font("Arial", Font.BOLD, 24), Color.WHITE);
+    private final BitmapFont titleFont = new BitmapFont(new Font("Arial", Font.BOLD, 72), Color.WHITE);
+    private final BitmapFont subtitleFont = new BitmapFont(new Font("Arial", Font.PLAIN, 24), Color.WHITE);
+    private final char[] text = new char[64];
+    private int textLength;
+
+    private final IdentityHashMap<BufferedImage, FighterSprite[]> fighterSprites = new IdentityHashMap<>();
+    private final IdentityHashMap<Color, LeafSprite[][]> leafSprites = new IdentityHashMap<>();
+
+    public SceneRenderer(int screenWidth, int screenHeight, BufferedImage backgroundImage, BufferedImage floorImage) {
+        this.screenWidth = screenWidth;
+        this.screenHeight = screenHeight;
+        this.backgroundImage = backgroundImage != null
+                ? prescale(backgroundImage, screenWidth, screenHeight, BufferedImage.TYPE_INT_RGB) : null;
+        this.floorImage = floorImage != null
+                ? prescale(floorImage, screenWidth, floorImage.getHeight(), BufferedImage.TYPE_INT_ARGB) : null;
+        this.barFrame = roundRect(BAR_WIDTH, BAR_HEIGHT, 10, Color.DARK_GRAY);
+        this.playerBar = roundRect(BAR_WIDTH - 4, BAR_HEIGHT - 4, 8, PLAYER_HEALTH);
+        this.aiBar = roundRect(BAR_WIDTH - 4, BAR_HEIGHT - 4, 8, AI_HEALTH);
+
+        healthFont.preload("PLAYER: AI: HP-0123456789");
+        scoreFont.preload("-0123456789");
+        titleFont.preload("PLAYER WINS! AI WINS!");
+        subtitleFont.preload("Next round in 0123456789...");
+    }
+
+    public void preload(Fighter fighter) {
+        for (int sheet = 0; sheet < 8; sheet++) {
+            BufferedImage[] frames = fighter.getSpriteSheet(sheet);
+            if (frames == null) continue;
+            for (BufferedImage frame : frames) {
+                fighterSprite(frame, fighter.width, fighter.height, false);
+                fighterSprite(frame, fighter.width, fighter.height, true);
+            }
+        }
+    }
+
+    public void preloadLeaves(Color color, int size) {
+        for (int step = 0; step < LEAF_ANGLES; step++) {
+            leafSprite(color, size, step * LEAF_ANGLE_STEP);
+        }
+    }
+
+    private static class FighterSprite {
+        final int width;
+        final int height;
+        final BufferedImage image;
+        final int offsetX;
+        final int offsetY;
+
+        FighterSprite(BufferedImage frame, int width, int height, boolean mirrored) {
+            this.width = width;
+            this.height = height;
+
+            BufferedImage scaled = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+            Graphics2D g2 = scaled.createGraphics();
+            if (mirrored) {
+                g2.drawImage(frame, width, 0, -width, height, null);
+            } else {
+                g2.drawImage(frame, 0, 0, width, height, null);
+            }
+            g2.dispose();
+
+            int minX = width, minY = height, maxX = -1, maxY = -1;
+            for (int y = 0; y < height; y++) {
+                for (int x = 0; x < width; x++) {
+                    if ((scaled.getRGB(x, y) >>> 24) == 0) continue;
+                    if (x < minX) minX = x;
+                    if (x > maxX) maxX = x;
+                    if (y < minY) minY = y;
+                    if (y > maxY) maxY = y;
+                }
+            }
+            if (maxX < 0) {
+                minX = minY = maxX = maxY = 0;
+            }
+            offsetX = minX;
+            offsetY = minY;
+            image = new BufferedImage(maxX - minX + 1, maxY - minY + 1, BufferedImage.TYPE_INT_ARGB);
+            g2 = image.createGraphics();
+            g2.drawImage(scaled, -minX, -minY, null);
+            g2.dispose();
+        }
+    }
+
+    private static class LeafSprite {
+        final BufferedImage image;
+        final int offsetX;
+        final int offsetY;
+
+        LeafSprite(Color color, int size, double theta) {
+            double cos = Math.cos(theta) * size;
+            double sin = Math.sin(theta) * size;
+            double minX = Math.min(Math.min(0, cos), Math.min(-sin, cos - sin));
+            double maxX = Math.max(Math.max(0, cos), Math.max(-sin, cos - sin));
+            double minY = Math.min(Math.min(0, sin), Math.min(cos, sin + cos));
+            double maxY = Math.max(Math.max(0, sin), Math.max(cos, sin + cos));
+            offsetX = (int) Math.floor(minX);
+            offsetY = (int) Math.floor(minY);
+
+            image = new BufferedImage((int) Math.ceil(maxX) - offsetX + 1, (int) Math.ceil(maxY) - offsetY + 1,
+                    BufferedImage.TYPE_INT_ARGB);
+            Graphics2D g2 = image.createGraphics();
+            g2.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+            g2.setColor(color);
+            g2.translate(-offsetX, -offsetY);
+            g2.rotate(theta);
+            g2.fillRect(0, 0, size, size);
+            g2.dispose();
+        }
+    }
+
+    private static BufferedImage prescale(BufferedImage source, int width, int height, int type) {
+        BufferedImage image = new BufferedImage(width, height, type);
+        Graphics2D g2 = image.createGraphics();
+        g2.drawImage(source, 0, 0, width, height, null);
+        g2.dispose();
+        return image;
+    }
+
+    private static BufferedImage roundRect(int width, int height, int arc, Color color) {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D g2 = image.createGraphics();
+        g2.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+        g2.setColor(color);
+        g2.fillRoundRect(0, 0, width, height, arc, arc);
+        g2.dispose();
+        return image;
+    }
+
+    public void draw(Graphics2D g2, RenderSnapshot snapshot, boolean fullQuality, boolean showHitboxes) {
+        g2.setRenderingHint(RenderingHints.KEY_ANTIALIASING,
+                fullQuality ? RenderingHints.VALUE_ANTIALIAS_ON : RenderingHints.VALUE_ANTIALIAS_OFF);
+
+        if (backgroundImage != null) {
+            g2.drawImage(backgroundImage, 0, 0, null);
+        } else {
+            g2.setColor(BACKDROP);
+            g2.fillRect(0, 0, screenWidth, screenHeight);
+        }
+
+        drawLeaves(g2, snapshot);
+
+        drawFighter(g2, snapshot.left);
+        drawFighter(g2, snapshot.right);
+
+        if (floorImage != null) {
+            g2.drawImage(floorImage, 0, screenHeight - floorImage.getHeight(), null);
+        } else {
+            g2.setColor(BACKDROP);
+            g2.fillRect(0, 0, screenWidth, screenHeight);
+        }
+
+        if (showHitboxes && fullQuality) {
+            drawHitboxes(g2, snapshot);
+        }
+
+        drawHealthBars(g2, snapshot);
+
+        if (snapshot.roundOver) {
+            drawRoundMessage(g2, snapshot);
+        }
+    }
+
+    private void drawFighter(Graphics2D g2, RenderSnapshot.FighterView fighter) {
+        if (fighter.image != null) {
+            FighterSprite sprite = fighterSprite(fighter.image, fighter.width, fighter.height, !fighter.facingRight);
+            g2.drawImage(sprite.image, fighter.x + sprite.offsetX, fighter.y + sprite.offsetY, null);
+        } else {
+            g2.setColor(Color.BLUE);
+            g2.fillRect(fighter.x + 100, fighter.y + 50, 100, 200);
+        }
+    }
+
+    private FighterSprite fighterSprite(BufferedImage frame, int width, int height, boolean mirrored) {
+        FighterSprite[] sprites = fighterSprites.get(frame);
+        if (sprites == null) {
+            sprites = new FighterSprite[2];
+            fighterSprites.put(frame, sprites);
+        }
+        int side = mirrored ? 1 : 0;
+        FighterSprite sprite = sprites[side];
+        if (sprite == null || sprite.width != width || sprite.height != height) {
+            sprite = new FighterSprite(frame, width, height, mirrored);
+            sprites[side] = sprite;
+        }
+        return sprite;
+    }
+
+    private void drawLeaves(Graphics2D g2, RenderSnapshot snapshot) {
+        for (int i = 0; i < snapshot.leafCount; i++) {
+            LeafSprite sprite = leafSprite(snapshot.leafColor[i], snapshot.leafSize[i], snapshot.leafAngle[i]);
+            g2.drawImage(sprite.image, (int) snapshot.leafX[i] + sprite.offsetX, (int) snapshot.leafY[i] + sprite.offsetY, null);
+        }
+    }
+
+    private LeafSprite leafSprite(Color color, int size, double angle) {
+        LeafSprite[][] sprites = leafSprites.get(color);
+        if (sprites == null || sprites.length <= size) {
+            LeafSprite[][] grown = new LeafSprite[size + 1][];
+            if (sprites != null) System.arraycopy(sprites, 0, grown, 0, sprites.length);
+            sprites = grown;
+            leafSprites.put(color, sprites);
+        }
+        if (sprites[size] == null) {
+            sprites[size] = new LeafSprite[LEAF_ANGLES];
+        }
+        int step = Math.floorMod((int) Math.round(angle / LEAF_ANGLE_STEP), LEAF_ANGLES);
+        LeafSprite sprite = sprites[size][step];
+        if (sprite == null) {
+            sprite = new LeafSprite(color, size, Math.toRadians(step * LEAF_ANGLE_STEP));
+            sprites[size][step] = sprite;
+        }
+        return sprite;
+    }
+
+    private void drawHitboxes(Graphics2D g2, RenderSnapshot snapshot) {
+        if (snapshot.left.hasHitbox) {
+            Rectangle pBody = snapshot.left.hitbox;
+            g2.setColor(PLAYER_BODY);
+            g2.fillRect(pBody.x, pBody.y, pBody.width, pBody.height);
+            g2.setColor(Color.GREEN);
+            drawOutline(g2, pBody, 2);
+        }
+
+        if (snapshot.left.hasAttackHitbox) {
+            Rectangle pAttack = snapshot.left.attackHitbox;
+            g2.setColor(PLAYER_ATTACK);
+            g2.fillRect(pAttack.x, pAttack.y, pAttack.width, pAttack.height);
+            g2.setColor(Color.RED);
+            drawOutline(g2, pAttack, 3);
+        }
+
+        if (snapshot.right.hasHitbox) {
+            Rectangle aiBody = snapshot.right.hitbox;
+            g2.setColor(AI_BODY);
+            g2.fillRect(aiBody.x, aiBody.y, aiBody.width, aiBody.height);
+            g2.setColor(Color.CYAN);
+            drawOutline(g2, aiBody, 2);
+        }
+
+        if (snapshot.right.hasAttackHitbox) {
+            Rectangle aiAttack = snapshot.right.attackHitbox;
+            g2.setColor(AI_ATTACK);
+            g2.fillRect(aiAttack.x, aiAttack.y, aiAttack.width, aiAttack.height);
+            g2.setColor(Color.ORANGE);
+            drawOutline(g2, aiAttack, 3);
+        }
+    }
+
+    private void drawOutline(Graphics2D g2, Rectangle r, int thickness) {
+        int half = thickness / 2;
+        g2.fillRect(r.x - half, r.y - half, r.width + thickness, thickness);
+        g2.fillRect(r.x - half, r.y + r.height - half, r.width + thickness, thickness);
+        g2.fillRect(r.x - half, r.y + thickness - half, thickness, r.height - thickness);
+        g2.fillRect(r.x + r.width - half, r.y + thickness - half, thickness, r.height - thickness);
+    }
+
+    private void drawHealthBars(Graphics2D g2, RenderSnapshot snapshot) {
+        int margin = 50;
+        int yPos = 30;
+
+        g2.drawImage(barFrame, margin, yPos, null);
+        int playerHealthWidth = (int) ((snapshot.left.health / 100.0) * (BAR_WIDTH - 4));
+        drawBar(g2, playerBar, margin + 2, yPos + 2, Math.max(0, playerHealthWidth));
+
+        text("PLAYER: ").append(snapshot.left.health).append(" HP");
+        healthFont.draw(g2, text, textLength, margin + 10, yPos + 22);
+
+        int aiBarX = screenWidth - margin - BAR_WIDTH;
+        g2.drawImage(barFrame, aiBarX, yPos, null);
+        int aiHealthWidth = (int) ((snapshot.right.health / 100.0) * (BAR_WIDTH - 4));
+        drawBar(g2, aiBar, aiBarX + BAR_WIDTH - 2 - Math.max(0, aiHealthWidth), yPos + 2, Math.max(0, aiHealthWidth));
+
+        text("AI: ").append(snapshot.right.health).append(" HP");
+        int textWidth = healthFont.getWidth(text, textLength);
+        healthFont.draw(g2, text, textLength, aiBarX + BAR_WIDTH - textWidth - 10, yPos + 22);
+
+        text("").append(snapshot.leftWins).append(" - ").append(snapshot.rightWins);
+        int scoreWidth = scoreFont.getWidth(text, textLength);
+        scoreFont.draw(g2, text, textLength, (screenWidth - scoreWidth) / 2, yPos + 22);
+    }
+
+    private SceneRenderer text(String prefix) {
+        textLength = 0;
+        return append(prefix);
+    }
+
+    private SceneRenderer append(String value) {
+        int length = Math.min(value.length(), text.length - textLength);
+        value.getChars(0, length, text, textLength);
+        textLength += length;
+        return this;
+    }
+
+    private SceneRenderer append(int value) {
+        if (value < 0) {
+            if (textLength < text.length) text[textLength++] = '-';
+            value = -value;
+        }
+        int digits = 1;
+        for (int rest = value / 10; rest > 0; rest /= 10) digits++;
+        if (textLength + digits > text.length) return this;
+        for (int i = textLength + digits - 1; i >= textLength; i--) {
+            text[i] = (char) ('0' + value % 10);
+            value /= 10;
+        }
+        textLength += digits;
+        return this;
+    }
+
+    private void drawBar(Graphics2D g2, BufferedImage bar, int x, int y, int width) {
+        if (width <= 0) return;
+        int cap = Math.min(bar.getHeight() / 2, width / 2);
+        int full = bar.getWidth();
+        int height = bar.getHeight();
+        g2.drawImage(bar, x, y, x + cap, y + height, 0, 0, cap, height, null);
+        g2.drawImage(bar, x + cap, y, x + width, y + height, full - (width - cap), 0, full, height, null);
+    }
+
+    private void drawRoundMessage(Graphics2D g2, RenderSnapshot snapshot) {
+        g2.setColor(OVERLAY);
+        g2.fillRect(0, screenHeight/2 - 60, screenWidth, 120);
+
+        text(snapshot.rightWon ? "AI WINS!" : "PLAYER WINS!");
+        int textWidth = titleFont.getWidth(text, textLength);
+        titleFont.draw(g2, text, textLength, (screenWidth - textWidth) / 2, screenHeight/2 + 20);
+
+        text("Next round in ").append(snapshot.roundDelay / 60 + 1).append("...");
+        int subWidth = subtitleFont.getWidth(text, textLength);
+        subtitleFont.draw(g2, text, textLength, (screenWidth - subWidth) / 2, screenHeight/2 + 50);
+    }
+}
@@ -0,0 +1,198 @@
+package com.demo;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+final class SpectatorProtocol {
+    static final byte KEY = 1;
+    static final byte DELTA = 2;
+
+    static final int HEADER_BYTES = Integer.BYTES + 1;
+    static final int FIGHTER_FIELDS = 19;
+    static final int ROUND_FIELDS = 5;
+    static final int FIELDS = 2 * FIGHTER_FIELDS + ROUND_FIELDS;
+    static final int MAX_PATHS = 8;
+    static final int MAX_PATH_BYTES = 200;
+    static final int MAX_FRAME_BYTES = 2048;
+
+    private SpectatorProtocol() {
+    }
+
+    static void capture(RenderSnapshot snapshot, int leftPath, int rightPath, int[] out, int offset) {
+        int n = captureFighter(snapshot.left, leftPath, out, offset);
+        n = captureFighter(snapshot.right, rightPath, out, n);
+        out[n++] = snapshot.roundOver ? 1 : 0;
+        out[n++] = snapshot.rightWon ? 1 : 0;
+        out[n++] = snapshot.roundDelay;
+        out[n++] = snapshot.leftWins;
+        out[n] = snapshot.rightWins;
+    }
+
+    private static int captureFighter(RenderSnapshot.FighterView view, int path, int[] out, int n) {
+        out[n++] = path;
+        out[n++] = view.sheet;
+        out[n++] = view.frame;
+        out[n++] = view.x;
+        out[n++] = view.y;
+        out[n++] = view.width;
+        out[n++] = view.height;
+        out[n++] = view.facingRight ? 1 : 0;
+        out[n++] = view.health;
+        out[n++] = view.hasHitbox ? 1 : 0;
+        out[n++] = view.hitbox.x;
+        out[n++] = view.hitbox.y;
+        out[n++] = view.hitbox.width;
+        out[n++] = view.hitbox.height;
+        out[n++] = view.hasAttackHitbox ? 1 : 0;
+        out[n++] = view.attackHitbox.x;
+        out[n++] = view.attackHitbox.y;
+        out[n++] = view.attackHitbox.width;
+        out[n++] = view.attackHitbox.height;
+        return n;
+    }
+
+    static void apply(int[] state, String[] paths, long tick, RenderSnapshot out) {
+        int n = applyFighter(state, 0, paths, out.left);
+        n = applyFighter(state, n, paths, out.right);
+        out.roundOver = state[n++] != 0;
+        out.rightWon = state[n++] != 0;
+        out.roundDelay = state[n++];
+        out.leftWins = state[n++];
+        out.rightWins = state[n];
+        out.tick = tick;
+        out.leafCount = 0;
+    }
+
+    private static int applyFighter(int[] state, int n, String[] paths, RenderSnapshot.FighterView view) {
+        int path = state[n++];
+        view.spritePath = path >= 0 && path < paths.length ? paths[path] : null;
+        view.sheet = state[n++];
+        view.frame = state[n++];
+        view.x = state[n++];
+        view.y = state[n++];
+        view.width = state[n++];
+        view.height = state[n++];
+        view.facingRight = state[n++] != 0;
+        view.health = state[n++];
+        view.hasHitbox = state[n++] != 0;
+        view.hitbox.setBounds(state[n++], state[n++], state[n++], state[n++]);
+        view.hasAttackHitbox = state[n++] != 0;
+        view.attackHitbox.setBounds(state[n++], state[n++], state[n++], state[n++]);
+        return n;
+    }
+
+    static void writeKey(ByteBuffer out, long tick, byte[][] paths, int pathCount, int[] state, int offset) {
+        int start = out.position();
+        out.putInt(0);
+        out.put(KEY);
+        out.putLong(tick);
+        out.put((byte) pathCount);
+        for (int i = 0; i < pathCount; i++) {
+            out.putShort((short) paths[i].length);
+            out.put(paths[i]);
+        }
+        for (int f = 0; f < FIELDS; f++) {
+            putVarint(out, zigzag(state[offset + f]));
+        }
+        out.putInt(start, out.position() - start - Integer.BYTES);
+    }
+
+    static void writeDelta(ByteBuffer out, long tickDelta, int[] previous, int[] state, int offset) {
+        int start = out.position();
+        out.putInt(0);
+        out.put(DELTA);
+        putVarint(out, (int) tickDelta);
+        long mask = 0;
+        for (int f = 0; f < FIELDS; f++) {
+            if (state[offset + f] != previous[f]) {
+                mask |= 1L << f;
+            }
+        }
+        out.putLong(mask);
+        for (int f = 0; f < FIELDS; f++) {
+            if ((mask & (1L << f)) != 0) {
+                putVarint(out, zigzag(state[offset + f] - previous[f]));
+            }
+        }
+        out.putInt(start, out.position() - start - Integer.BYTES);
+    }
+
+    static byte[] encodePath(String path) {
+        byte[] bytes = path.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > MAX_PATH_BYTES) {
+            throw new IllegalArgumentException("sprite path too long: " + path);
+        }
+        return bytes;
+    }
+
+    static long read(ByteBuffer in, byte type, long tick, boolean keyed, int[] state, String[] paths) throws IOException {
+        try {
+            switch (type) {
+                case KEY:
+                    tick = in.getLong();
+                    int pathCount = in.get();
+                    if (pathCount < 0 || pathCount > paths.length) {
+                        throw new IOException("bad path count " + pathCount);
+                    }
+                    for (int i = 0; i < pathCount; i++) {
+                        int length = in.getShort();
+                        if (length < 0 || length > MAX_PATH_BYTES) {
+                            throw new IOException("bad path length " + length);
+                        }
+                        byte[] bytes = new byte[length];
+                        in.get(bytes);
+                        String path = new String(bytes, StandardCharsets.UTF_8);
+                        paths[i] = path.equals(paths[i]) ? paths[i] : path;
+                    }
+                    for (int f = 0; f < FIELDS; f++) {
+                        state[f] = unzigzag(getVarint(in));
+                    }
+                    return tick;
+                case DELTA:
+                    if (!keyed) {
+                        throw new IOException("delta frame before the first key frame");
+                    }
+                    tick += getVarint(in);
+                    long mask = in.getLong();
+                    for (int f = 0; f < FIELDS; f++) {
+                        if ((mask & (1L << f)) != 0) {
+                            state[f] += unzigzag(getVarint(in));
+                        }
+                    }
+                    return tick;
+                default:
+                    throw new IOException("unknown frame type " + type);
+            }
+        } catch (BufferUnderflowException e) {
+            throw new IOException("truncated frame", e);
+        }
+    }
+
+    private static int zigzag(int value) {
+        return (value << 1) ^ (value >> 31);
+    }
+
+    private static int unzigzag(int value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    private static void putVarint(ByteBuffer out, int value) {
+        while ((value & ~0x7f) != 0) {
+            out.put((byte) ((value & 0x7f) | 0x80));
+            value >>>= 7;
+        }
+        out.put((byte) value);
+    }
+
+    private static int getVarint(ByteBuffer in) throws IOException {
+        int value = 0;
+        for (int shift = 0; shift < 35; shift += 7) {
+            byte b = in.get();
+            value |= (b & 0x7f) << shift;
+            if (b >= 0) return value;
+        }
+        throw new IOException("malformed varint");
+    }
+}
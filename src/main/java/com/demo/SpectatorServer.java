@@ -0,0 +1,358 @@
+package com.demo;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class SpectatorServer implements AutoCloseable {
+    private static final int RING_CAPACITY = 256;
+    private static final int SLOTS = 512;
+    private static final long WAITING = -1;
+    private static final long POLL_MILLIS = 2;
+
+    private final int keyInterval;
+    private final int maxLag;
+
+    private final int[] states = new int[RING_CAPACITY * SpectatorProtocol.FIELDS];
+    private final long[] ticks = new long[RING_CAPACITY];
+    private final AtomicLong head = new AtomicLong();
+    private final AtomicLong tail = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private long cachedHead;
+    private final String[] spritePaths = new String[SpectatorProtocol.MAX_PATHS];
+    private int spritePathCount;
+
+    private final ByteBuffer arena = ByteBuffer.allocateDirect(SLOTS * SpectatorProtocol.MAX_FRAME_BYTES);
+    private final int[] frameLengths = new int[SLOTS];
+    private final int[] previous = new int[SpectatorProtocol.FIELDS];
+    private final byte[][] pathBytes = new byte[SpectatorProtocol.MAX_PATHS][];
+    private int pathsSent;
+    private long published;
+    private long lastKey = WAITING;
+    private long lastTick;
+
+    private final Selector selector;
+    private final ServerSocketChannel server;
+    private final List<Viewer> viewers = new ArrayList<>();
+    private final ByteBuffer discard = ByteBuffer.allocate(256);
+    private FileChannel recording;
+    private final ByteBuffer recordView = arena.duplicate();
+    private final Thread thread;
+    private volatile boolean running = true;
+
+    private final AtomicLong keyFrames = new AtomicLong();
+    private final AtomicLong encodedBytes = new AtomicLong();
+    private final AtomicLong framesSent = new AtomicLong();
+    private final AtomicLong bytesOut = new AtomicLong();
+    private final AtomicLong resyncs = new AtomicLong();
+    private final AtomicLong disconnected = new AtomicLong();
+    private volatile int viewerCount;
+
+    private class Viewer {
+        final SocketChannel channel;
+        final SelectionKey key;
+        final ByteBuffer view = arena.duplicate();
+        ByteBuffer spill;
+        ByteBuffer current = view;
+        long next = WAITING;
+        boolean writing;
+
+        Viewer(SocketChannel channel, SelectionKey key) {
+            this.channel = channel;
+            this.key = key;
+        }
+    }
+
+    public SpectatorServer(String host, int port, int keyInterval, int maxLag) {
+        if (keyInterval < 1 || maxLag < 1 || keyInterval + maxLag >= SLOTS) {
+            throw new IllegalArgumentException("key interval and lag must be positive and fit in " + SLOTS + " frames");
+        }
+        this.keyInterval = keyInterval;
+        this.maxLag = maxLag;
+        try {
+            selector = Selector.open();
+            server = ServerSocketChannel.open();
+            server.bind(new InetSocketAddress(host, port));
+            server.configureBlocking(false);
+            server.register(selector, SelectionKey.OP_ACCEPT);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        thread = new Thread(this::serve, "spectator-server");
+        thread.setDaemon(true);
+    }
+
+    public static SpectatorServer fromProperties() {
+        Integer port = Integer.getInteger("betterenemy.spectatorPort");
+        String record = System.getProperty("betterenemy.spectatorRecord");
+        if (port == null && record == null) return null;
+
+        SpectatorServer server = new SpectatorServer(System.getProperty("betterenemy.spectatorHost", "0.0.0.0"),
+                port != null ? port : 0, Integer.getInteger("betterenemy.spectatorKeyInterval", 60),
+                Integer.getInteger("betterenemy.spectatorMaxLag", 240));
+        if (record != null) {
+            server.setRecording(new File(record));
+        }
+        return server.start();
+    }
+
+    public SpectatorServer start() {
+        thread.start();
+        return this;
+    }
+
+    public void setRecording(File file) {
+        if (thread.isAlive()) {
+            throw new IllegalStateException("recording must be set before the server starts");
+        }
+        try {
+            recording = FileChannel.open(file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not open " + file, e);
+        }
+    }
+
+    public int getPort() {
+        return server.socket().getLocalPort();
+    }
+
+    public int getViewers() { return viewerCount; }
+    public long getDropped() { return dropped.get(); }
+    public long getEncodedFrames() { return published; }
+    public long getKeyFrames() { return keyFrames.get(); }
+    public long getEncodedBytes() { return encodedBytes.get(); }
+    public long getFramesSent() { return framesSent.get(); }
+    public long getBytesOut() { return bytesOut.get(); }
+    public long getResyncs() { return resyncs.get(); }
+    public long getDisconnected() { return disconnected.get(); }
+
+    public void publish(RenderSnapshot snapshot) {
+        long t = tail.get();
+        if (t - cachedHead >= RING_CAPACITY) {
+            cachedHead = head.get();
+            if (t - cachedHead >= RING_CAPACITY) {
+                dropped.incrementAndGet();
+                return;
+            }
+        }
+        int slot = (int) (t & (RING_CAPACITY - 1));
+        SpectatorProtocol.capture(snapshot, pathIndex(snapshot.left.spritePath), pathIndex(snapshot.right.spritePath),
+                states, slot * SpectatorProtocol.FIELDS);
+        ticks[slot] = snapshot.tick;
+        tail.lazySet(t + 1);
+    }
+
+    private int pathIndex(String path) {
+        if (path == null) return -1;
+        for (int i = 0; i < spritePathCount; i++) {
+            if (spritePaths[i] == path || spritePaths[i].equals(path)) return i;
+        }
+        if (spritePathCount == spritePaths.length) return -1;
+        spritePaths[spritePathCount] = path;
+        return spritePathCount++;
+    }
+
+    private void serve() {
+        try {
+            while (running) {
+                selector.select(POLL_MILLIS);
+                encodePending();
+                Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                while (keys.hasNext()) {
+                    SelectionKey key = keys.next();
+                    keys.remove();
+                    try {
+                        if (key.isAcceptable()) {
+                            accept();
+                        } else {
+                            Viewer viewer = (Viewer) key.attachment();
+                            if (key.isReadable()) {
+                                drain(viewer);
+                            }
+                            if (key.isValid() && key.isWritable()) {
+                                flush(viewer);
+                            }
+                        }
+                    } catch (IOException e) {
+                        disconnect((Viewer) key.attachment());
+                    }
+                }
+                for (int i = viewers.size() - 1; i >= 0; i--) {
+                    Viewer viewer = viewers.get(i);
+                    if ((viewer.key.interestOps() & SelectionKey.OP_WRITE) != 0) continue;
+                    try {
+                        flush(viewer);
+                    } catch (IOException e) {
+                        disconnect(viewer);
+                    }
+                }
+            }
+        } catch (IOException e) {
+            e.printStackTrace();
+        } finally {
+            shutdown();
+        }
+    }
+
+    private void encodePending() throws IOException {
+        long h = head.get();
+        long t = tail.get();
+        for (; h < t; h++) {
+            int slot = (int) (h & (RING_CAPACITY - 1));
+            encode(slot * SpectatorProtocol.FIELDS, ticks[slot]);
+            head.lazySet(h + 1);
+        }
+    }
+
+    private void encode(int offset, long tick) throws IOException {
+        int paths = Math.max(pathsSent, Math.max(states[offset], states[offset + SpectatorProtocol.FIGHTER_FIELDS]) + 1);
+        for (int p = pathsSent; p < paths; p++) {
+            pathBytes[p] = SpectatorProtocol.encodePath(spritePaths[p]);
+        }
+        boolean key = lastKey == WAITING || published - lastKey >= keyInterval || paths > pathsSent || tick <= lastTick;
+
+        for (Viewer viewer : viewers) {
+            if (viewer.writing && viewer.current == viewer.view && published - viewer.next >= SLOTS) {
+                if (viewer.spill == null) {
+                    viewer.spill = ByteBuffer.allocate(SpectatorProtocol.MAX_FRAME_BYTES);
+                }
+                viewer.spill.clear();
+                viewer.spill.put(viewer.view).flip();
+                viewer.current = viewer.spill;
+            }
+        }
+
+        int slot = (int) (published % SLOTS);
+        int start = slot * SpectatorProtocol.MAX_FRAME_BYTES;
+        arena.limit(start + SpectatorProtocol.MAX_FRAME_BYTES).position(start);
+        if (key) {
+            SpectatorProtocol.writeKey(arena, tick, pathBytes, paths, states, offset);
+            pathsSent = paths;
+            lastKey = published;
+            keyFrames.incrementAndGet();
+        } else {
+            SpectatorProtocol.writeDelta(arena, tick - lastTick, previous, states, offset);
+        }
+        frameLengths[slot] = arena.position() - start;
+        encodedBytes.addAndGet(frameLengths[slot]);
+        System.arraycopy(states, offset, previous, 0, SpectatorProtocol.FIELDS);
+        lastTick = tick;
+
+        if (recording != null) {
+            recordView.limit(start + frameLengths[slot]).position(start);
+            while (recordView.hasRemaining()) {
+                recording.write(recordView);
+            }
+        }
+        if (key) {
+            for (Viewer viewer : viewers) {
+                if (viewer.next == WAITING) {
+                    viewer.next = published;
+                }
+            }
+        }
+        published++;
+    }
+
+    private void accept() throws IOException {
+        SocketChannel channel = server.accept();
+        if (channel == null) return;
+        channel.configureBlocking(false);
+        channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+        SelectionKey key = channel.register(selector, SelectionKey.OP_READ);
+        Viewer viewer = new Viewer(channel, key);
+        key.attach(viewer);
+        viewers.add(viewer);
+        viewerCount = viewers.size();
+    }
+
+    private void drain(Viewer viewer) throws IOException {
+        discard.clear();
+        if (viewer.channel.read(discard) < 0) {
+            throw new IOException("viewer closed");
+        }
+    }
+
+    private void flush(Viewer viewer) throws IOException {
+        while (true) {
+            if (!viewer.writing) {
+                if (viewer.next != WAITING && published - viewer.next > maxLag) {
+                    viewer.next = WAITING;
+                    resyncs.incrementAndGet();
+                }
+                if (viewer.next == WAITING || viewer.next >= published) {
+                    viewer.key.interestOps(SelectionKey.OP_READ);
+                    return;
+                }
+                int slot = (int) (viewer.next % SLOTS);
+                int start = slot * SpectatorProtocol.MAX_FRAME_BYTES;
+                viewer.view.limit(start + frameLengths[slot]).position(start);
+                viewer.current = viewer.view;
+                viewer.writing = true;
+            }
+
+            int n = viewer.channel.write(viewer.current);
+            bytesOut.addAndGet(n);
+            if (viewer.current.hasRemaining()) {
+                viewer.key.interestOps(SelectionKey.OP_READ | SelectionKey.OP_WRITE);
+                return;
+            }
+            viewer.writing = false;
+            viewer.next++;
+            framesSent.incrementAndGet();
+        }
+    }
+
+    private void disconnect(Viewer viewer) {
+        if (viewer == null) return;
+        viewer.key.cancel();
+        try {
+            viewer.channel.close();
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+        if (viewers.remove(viewer)) {
+            disconnected.incrementAndGet();
+        }
+        viewerCount = viewers.size();
+    }
+
+    private void shutdown() {
+        try {
+            for (SelectionKey key : selector.keys()) {
+                key.channel().close();
+            }
+            selector.close();
+            if (recording != null) {
+                recording.close();
+            }
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    @Override
+    public void close() {
+        running = false;
+        selector.wakeup();
+        try {
+            thread.join(2000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,144 @@
+package com.demo;
+
+import javax.imageio.ImageIO;
+import javax.swing.JFrame;
+import javax.swing.JPanel;
+
+import com.demo.entity.Fighter;
+
+import java.awt.Dimension;
+import java.awt.Graphics;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.SocketChannel;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.locks.LockSupport;
+
+public class SpectatorViewer extends JPanel {
+    private static final long serialVersionUID = 1L;
+    private static final int SCREEN_WIDTH = 1600;
+    private static final int SCREEN_HEIGHT = 900;
+    private static final long FRAME_NANOS = 1_000_000_000L / 60;
+
+    private final RenderSnapshotBuffer snapshots = new RenderSnapshotBuffer(0);
+    private final SceneRenderer sceneRenderer;
+    private final Map<String, BufferedImage[][]> sheets = new HashMap<>();
+
+    public SpectatorViewer() {
+        this.setPreferredSize(new Dimension(SCREEN_WIDTH, SCREEN_HEIGHT));
+        this.setDoubleBuffered(true);
+
+        BufferedImage background = null;
+        BufferedImage floor = null;
+        try {
+            background = ImageIO.read(getClass().getResourceAsStream("/assets/background.png"));
+            floor = ImageIO.read(getClass().getResourceAsStream("/assets/floor.png"));
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+        sceneRenderer = new SceneRenderer(SCREEN_WIDTH, SCREEN_HEIGHT, background, floor);
+    }
+
+    public static void main(String[] args) {
+        String source = args.length > 0 ? args[0] : "localhost:7777";
+
+        JFrame window = new JFrame();
+        window.setTitle("BetterEnemy spectator - " + source);
+        window.setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
+        window.setResizable(false);
+        SpectatorViewer viewer = new SpectatorViewer();
+        window.add(viewer);
+        window.pack();
+        window.setLocationRelativeTo(null);
+        window.setVisible(true);
+
+        Thread reader = new Thread(() -> viewer.watch(source), "spectator-reader");
+        reader.setDaemon(true);
+        reader.start();
+    }
+
+    public void watch(String source) {
+        File file = new File(source);
+        boolean replay = file.isFile();
+        try (ReadableByteChannel channel = replay ? FileChannel.open(file.toPath()) : SocketChannel.open(parseAddress(source))) {
+            play(channel, replay);
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    private static InetSocketAddress parseAddress(String source) {
+        int colon = source.lastIndexOf(':');
+        if (colon < 0) {
+            throw new IllegalArgumentException("expected host:port or a recording file, not " + source);
+        }
+        return new InetSocketAddress(source.substring(0, colon), Integer.parseInt(source.substring(colon + 1)));
+    }
+
+    private void play(ReadableByteChannel channel, boolean paced) throws IOException {
+        ByteBuffer in = ByteBuffer.allocate(64 << 10);
+        int[] state = new int[SpectatorProtocol.FIELDS];
+        String[] paths = new String[SpectatorProtocol.MAX_PATHS];
+        long tick = 0;
+        boolean keyed = false;
+        long nextFrame = System.nanoTime();
+
+        while (channel.read(in) >= 0) {
+            in.flip();
+            while (in.remaining() >= Integer.BYTES) {
+                int length = in.getInt(in.position());
+                if (length <= 0 || length > SpectatorProtocol.MAX_FRAME_BYTES) {
+                    throw new IOException("bad frame length " + length);
+                }
+                if (in.remaining() < Integer.BYTES + length) break;
+
+                int limit = in.limit();
+                int end = in.position() + Integer.BYTES + length;
+                in.position(in.position() + Integer.BYTES).limit(end);
+                tick = SpectatorProtocol.read(in, in.get(), tick, keyed, state, paths);
+                keyed = true;
+                in.limit(limit).position(end);
+
+                if (paced) {
+                    nextFrame += FRAME_NANOS;
+                    long wait = nextFrame - System.nanoTime();
+                    if (wait > 0) LockSupport.parkNanos(wait);
+                }
+                show(state, paths, tick);
+            }
+            in.compact();
+        }
+    }
+
+    private void show(int[] state, String[] paths, long tick) {
+        RenderSnapshot snapshot = snapshots.back();
+        SpectatorProtocol.apply(state, paths, tick, snapshot);
+        snapshot.left.image = image(snapshot.left);
+        snapshot.right.image = image(snapshot.right);
+        snapshots.publish();
+        repaint();
+    }
+
+    private BufferedImage image(RenderSnapshot.FighterView view) {
+        if (view.spritePath == null || view.sheet < 0 || view.sheet >= 8) return null;
+        BufferedImage[][] fighter = sheets.computeIfAbsent(view.spritePath, path -> new BufferedImage[8][]);
+        if (fighter[view.sheet] == null) {
+            fighter[view.sheet] = Fighter.spriteSheet(view.spritePath, view.sheet);
+        }
+        BufferedImage[] frames = fighter[view.sheet];
+        return frames != null && view.frame >= 0 && view.frame < frames.length ? frames[view.frame] : null;
+    }
+
+    @Override
+    protected void paintComponent(Graphics g) {
+        super.paintComponent(g);
+        sceneRenderer.draw((Graphics2D) g, snapshots.acquire(), true, true);
+    }
+}
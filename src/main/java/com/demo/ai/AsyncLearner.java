@@ -0,0 +1,244 @@
+package com.demo.ai;
+
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.DoubleAccumulator;
+import java.util.concurrent.atomic.DoubleAdder;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+import com.demo.jfr.LearnStepEvent;
+
+public class AsyncLearner implements AutoCloseable {
+    private final NeuralNetwork master;
+    private final NeuralNetwork target;
+    private final NeuralNetwork[] buffers = new NeuralNetwork[2];
+    private final AtomicReference<NeuralNetwork> published = new AtomicReference<>();
+    private volatile NeuralNetwork inUse;
+
+    private final int inputSize;
+    private final int mask;
+    private final double[] states;
+    private final double[] nextStates;
+    private final double[] rewards;
+    private final int[] actions;
+    private final boolean[] dones;
+    private final AtomicLong head = new AtomicLong();
+    private final AtomicLong tail = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private long cachedHead;
+
+    private final double[] replayStates;
+    private final double[] replayNextStates;
+    private final double[] replayRewards;
+    private final int[] replayActions;
+    private final boolean[] replayDones;
+    private int replayCount;
+    private int replayNext;
+    private final Random random = new Random();
+
+    private final double gamma;
+    private final int updatesPerTransition;
+    private final int publishInterval;
+    private final int targetInterval;
+    private final double[] state;
+    private final double[] nextState;
+    private volatile long steps;
+    private final LearnStepEvent learnStepEvent = new LearnStepEvent();
+
+    private final DoubleAdder tdSum = new DoubleAdder();
+    private final DoubleAdder tdAbsSum = new DoubleAdder();
+    private final DoubleAccumulator tdAbsMax = new DoubleAccumulator(Math::max, 0);
+    private final LongAdder tdCount = new LongAdder();
+
+    private final Thread thread;
+    private volatile boolean running = true;
+    private volatile boolean paused = false;
+    private volatile long replayUntil;
+    private volatile long idleSteps;
+
+    public AsyncLearner(NeuralNetwork master, double gamma, int queueCapacity, int replayCapacity,
+                        int updatesPerTransition, int publishInterval, int targetInterval) {
+        if (Integer.bitCount(queueCapacity) != 1) {
+            throw new IllegalArgumentException("queueCapacity must be a power of two: " + queueCapacity);
+        }
+        this.master = master;
+        this.gamma = gamma;
+        this.updatesPerTransition = updatesPerTransition;
+        this.publishInterval = publishInterval;
+        this.targetInterval = targetInterval;
+        this.inputSize = master.getInputSize();
+        this.mask = queueCapacity - 1;
+
+        states = new double[queueCapacity * inputSize];
+        nextStates = new double[queueCapacity * inputSize];
+        rewards = new double[queueCapacity];
+        actions = new int[queueCapacity];
+        dones = new boolean[queueCapacity];
+
+        replayStates = new double[replayCapacity * inputSize];
+        replayNextStates = new double[replayCapacity * inputSize];
+        replayRewards = new double[replayCapacity];
+        replayActions = new int[replayCapacity];
+        replayDones = new boolean[replayCapacity];
+
+        state = new double[inputSize];
+        nextState = new double[inputSize];
+
+        target = master.copy();
+        buffers[0] = master.copy();
+        buffers[1] = master.copy();
+        published.set(buffers[0]);
+        inUse = buffers[0];
+
+        thread = new Thread(this::learnLoop, "ai-learner");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    public static AsyncLearner start(NeuralNetwork master, double gamma) {
+        return new AsyncLearner(master, gamma, 1024, 4096, 4, 32, 1000);
+    }
+
+    public NeuralNetwork acquire() {
+        NeuralNetwork current = published.get();
+        inUse = current;
+        return current;
+    }
+
+    public boolean submit(double[] state, int action, double reward, double[] nextState, boolean done) {
+        long t = tail.get();
+        if (t - cachedHead > mask) {
+            cachedHead = head.get();
+            if (t - cachedHead > mask) {
+                dropped.incrementAndGet();
+                return false;
+            }
+        }
+
+        int slot = (int) (t & mask);
+        System.arraycopy(state, 0, states, slot * inputSize, inputSize);
+        System.arraycopy(nextState, 0, nextStates, slot * inputSize, inputSize);
+        rewards[slot] = reward;
+        actions[slot] = action;
+        dones[slot] = done;
+        tail.lazySet(t + 1);
+        return true;
+    }
+
+    public void setPaused(boolean paused) {
+        if (this.paused == paused) return;
+        this.paused = paused;
+        if (!paused) {
+            LockSupport.unpark(thread);
+        }
+    }
+
+    public void replayFor(long budgetNanos) {
+        if (budgetNanos <= 0) return;
+        replayUntil = System.nanoTime() + budgetNanos;
+        LockSupport.unpark(thread);
+    }
+
+    public void drainTdErrors(TrainingStats stats) {
+        long count = tdCount.sumThenReset();
+        if (count == 0) return;
+        stats.addTdErrors(tdSum.sumThenReset(), tdAbsSum.sumThenReset(), tdAbsMax.getThenReset(), count);
+    }
+
+    public long getDropped() {
+        return dropped.get();
+    }
+
+    public long getSteps() {
+        return steps;
+    }
+
+    public long getIdleSteps() {
+        return idleSteps;
+    }
+
+    private void learnLoop() {
+        while (running) {
+            long h = head.get();
+            if (paused || h == tail.get()) {
+                if (!paused && replayCount > 0 && replayUntil - System.nanoTime() > 0) {
+                    train(random.nextInt(replayCount), true);
+                    idleSteps++;
+                    continue;
+                }
+                LockSupport.parkNanos(1_000_000L);
+                continue;
+            }
+
+            int slot = (int) (h & mask);
+            int replaySlot = replayNext;
+            System.arraycopy(states, slot * inputSize, replayStates, replaySlot * inputSize, inputSize);
+            System.arraycopy(nextStates, slot * inputSize, replayNextStates, replaySlot * inputSize, inputSize);
+            replayRewards[replaySlot] = rewards[slot];
+            replayActions[replaySlot] = actions[slot];
+            replayDones[replaySlot] = dones[slot];
+            head.lazySet(h + 1);
+
+            replayNext = (replayNext + 1) % replayRewards.length;
+            if (replayCount < replayRewards.length) replayCount++;
+
+            train(replaySlot, false);
+            for (int i = 1; i < updatesPerTransition; i++) {
+                train(random.nextInt(replayCount), true);
+            }
+        }
+    }
+
+    private void train(int replaySlot, boolean replayed) {
+        LearnStepEvent event = learnStepEvent;
+        event.begin();
+        System.arraycopy(replayStates, replaySlot * inputSize, state, 0, inputSize);
+        System.arraycopy(replayNextStates, replaySlot * inputSize, nextState, 0, inputSize);
+        double tdError = master.learn(state, replayActions[replaySlot], replayRewards[replaySlot],
+                nextState, gamma, replayDones[replaySlot], target);
+        event.end();
+        if (event.shouldCommit()) {
+            event.tdError = tdError;
+            event.replayed = replayed;
+            event.background = true;
+            event.commit();
+        }
+
+        double abs = Math.abs(tdError);
+        tdSum.add(tdError);
+        tdAbsSum.add(abs);
+        tdAbsMax.accumulate(abs);
+        tdCount.increment();
+
+        long step = steps + 1;
+        steps = step;
+        if (step % publishInterval == 0) {
+            publish();
+        }
+        if (step % targetInterval == 0) {
+            target.copyWeightsFrom(master);
+        }
+    }
+
+    private void publish() {
+        NeuralNetwork back = published.get() == buffers[0] ? buffers[1] : buffers[0];
+        if (back == inUse) {
+            return;
+        }
+        back.copyWeightsFrom(master);
+        published.set(back);
+    }
+
+    @Override
+    public void close() {
+        running = false;
+        LockSupport.unpark(thread);
+        try {
+            thread.join(2000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
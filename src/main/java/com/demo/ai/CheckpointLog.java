@@ -0,0 +1,508 @@
+package com.demo.ai;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.CRC32;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+import com.demo.jfr.CheckpointEvent;
+
+public class CheckpointLog implements AutoCloseable {
+    private static final int MAGIC = 0x43504b54;
+    private static final byte BASE = 0;
+    private static final byte DELTA = 1;
+    private static final String SEGMENT_PREFIX = "segment-";
+    private static final String SEGMENT_SUFFIX = ".log";
+    private static final int PENDING_SLOTS = 4;
+
+    public static class Entry {
+        public final long version;
+        public final long timeMillis;
+        public final boolean base;
+        public final int bytes;
+        public final File segment;
+
+        Entry(long version, long timeMillis, boolean base, int bytes, File segment) {
+            this.version = version;
+            this.timeMillis = timeMillis;
+            this.base = base;
+            this.bytes = bytes;
+            this.segment = segment;
+        }
+    }
+
+    private static class Record {
+        byte kind;
+        long version;
+        long timeMillis;
+        int[] layerSizes;
+        double learningRate;
+        int count;
+        int length;
+        int bytes;
+        byte[] payload = new byte[0];
+    }
+
+    private final File directory;
+    private final int baseInterval;
+    private final long maxBytes;
+    private final int fullSegments;
+    private final int thinFactor;
+    private final ThreadPoolExecutor writer;
+    private final ArrayBlockingQueue<Pending> free = new ArrayBlockingQueue<>(PENDING_SLOTS);
+    private final AtomicLong dropped = new AtomicLong();
+    private final CheckpointEvent checkpointEvent = new CheckpointEvent();
+
+    private long version;
+    private int[] layerSizes;
+    private double[] previous;
+    private int deltasSinceBase;
+    private File activeSegment;
+    private DataOutputStream out;
+    private String mirrorFile;
+    private NeuralNetwork mirror;
+
+    private final Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+    private final CRC32 crc = new CRC32();
+    private byte[] plane = new byte[0];
+    private byte[] compressed = new byte[0];
+
+    public CheckpointLog(File directory, int baseInterval, long maxBytes, int fullSegments, int thinFactor) {
+        this.directory = directory;
+        this.baseInterval = baseInterval;
+        this.maxBytes = maxBytes;
+        this.fullSegments = fullSegments;
+        this.thinFactor = thinFactor;
+        this.version = latestVersion(directory) + 1;
+        this.writer = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(64), r -> {
+            Thread thread = new Thread(r, "checkpoint-writer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        for (int i = 0; i < PENDING_SLOTS; i++) {
+            free.add(new Pending());
+        }
+    }
+
+    private class Pending implements Runnable {
+        int[] sizes = new int[0];
+        double learningRate;
+        double[] parameters = new double[0];
+        long time;
+
+        void resize(NeuralNetwork network) {
+            parameters = new double[network.getParameterCount()];
+            sizes = network.getLayerSizes();
+        }
+
+        @Override
+        public void run() {
+            try {
+                write(sizes, learningRate, parameters, time);
+            } finally {
+                free.add(this);
+            }
+        }
+    }
+
+    public static CheckpointLog open(String directory) {
+        return open(directory, 10);
+    }
+
+    public static CheckpointLog open(String directory, int baseInterval) {
+        CheckpointLog log = new CheckpointLog(new File(directory), baseInterval, 64L << 20, 2, 4);
+        Runtime.getRuntime().addShutdownHook(new Thread(log::close, "checkpoint-shutdown"));
+        return log;
+    }
+
+    public void setMirrorFile(String mirrorFile) {
+        writer.execute(() -> this.mirrorFile = mirrorFile);
+    }
+
+    public void append(NeuralNetwork network) {
+        Pending pending = writer.isShutdown() ? null : free.poll();
+        if (pending == null) {
+            dropped.incrementAndGet();
+            return;
+        }
+        if (pending.parameters.length != network.getParameterCount() || !network.hasLayerSizes(pending.sizes)) {
+            pending.resize(network);
+            for (Pending slot : free) {
+                slot.resize(network);
+            }
+        }
+        network.getParameters(pending.parameters);
+        pending.learningRate = network.getLearningRate();
+        pending.time = System.currentTimeMillis();
+        try {
+            writer.execute(pending);
+        } catch (RejectedExecutionException e) {
+            free.add(pending);
+            dropped.incrementAndGet();
+        }
+    }
+
+    public long getDropped() {
+        return dropped.get();
+    }
+
+    public void compact() {
+        writer.execute(this::compactSegments);
+    }
+
+    private void write(int[] sizes, double learningRate, double[] parameters, long time) {
+        CheckpointEvent event = checkpointEvent;
+        event.begin();
+        try {
+            boolean base = out == null || deltasSinceBase >= baseInterval || !Arrays.equals(sizes, layerSizes);
+            if (base) {
+                startSegment();
+                layerSizes = sizes.clone();
+                deltasSinceBase = 0;
+            } else {
+                deltasSinceBase++;
+            }
+            int length = writeRecord(out, base ? BASE : DELTA, version, time, sizes, learningRate, parameters, base ? null : previous);
+            out.flush();
+            if (previous == null || previous.length != parameters.length) {
+                previous = new double[parameters.length];
+            }
+            System.arraycopy(parameters, 0, previous, 0, parameters.length);
+            event.end();
+            if (event.shouldCommit()) {
+                event.path = activeSegment.getPath();
+                event.version = version;
+                event.full = base;
+                event.bytes = length;
+                event.commit();
+            }
+            version++;
+
+            if (base) {
+                writeMirror(sizes, learningRate, parameters);
+                compactSegments();
+            }
+        } catch (IOException e) {
+            e.printStackTrace();
+            closeSegment();
+        }
+    }
+
+    private void startSegment() throws IOException {
+        closeSegment();
+        directory.mkdirs();
+        activeSegment = new File(directory, String.format("%s%012d%s", SEGMENT_PREFIX, version, SEGMENT_SUFFIX));
+        out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(activeSegment)));
+    }
+
+    private void closeSegment() {
+        if (out == null) return;
+        try {
+            out.close();
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+        out = null;
+    }
+
+    private void writeMirror(int[] sizes, double learningRate, double[] parameters) {
+        if (mirrorFile == null) return;
+        if (mirror == null || !Arrays.equals(mirror.getLayerSizes(), sizes)) {
+            mirror = new NeuralNetwork(sizes, learningRate);
+        }
+        mirror.setParameters(parameters);
+        mirror.save(mirrorFile);
+    }
+
+    private int writeRecord(DataOutputStream out, byte kind, long version, long time, int[] sizes, double learningRate,
+                             double[] parameters, double[] reference) throws IOException {
+        int length = encode(parameters, reference);
+        crc.reset();
+        crc.update(compressed, 0, length);
+
+        out.writeInt(MAGIC);
+        out.writeByte(kind);
+        out.writeLong(version);
+        out.writeLong(time);
+        if (kind == BASE) {
+            out.writeInt(sizes.length);
+            for (int size : sizes) {
+                out.writeInt(size);
+            }
+            out.writeDouble(learningRate);
+        }
+        out.writeInt(parameters.length);
+        out.writeInt(length);
+        out.writeLong(crc.getValue());
+        out.write(compressed, 0, length);
+        return length;
+    }
+
+    private int encode(double[] parameters, double[] reference) {
+        int n = parameters.length;
+        if (plane.length < n * 8) {
+            plane = new byte[n * 8];
+            compressed = new byte[n * 8 + 64];
+        }
+        for (int i = 0; i < n; i++) {
+            long bits = Double.doubleToRawLongBits(parameters[i]);
+            if (reference != null) {
+                bits ^= Double.doubleToRawLongBits(reference[i]);
+            }
+            for (int b = 0; b < 8; b++) {
+                plane[b * n + i] = (byte) (bits >>> (56 - 8 * b));
+            }
+        }
+
+        deflater.reset();
+        deflater.setInput(plane, 0, n * 8);
+        deflater.finish();
+        int length = 0;
+        while (!deflater.finished()) {
+            if (length == compressed.length) {
+                compressed = Arrays.copyOf(compressed, compressed.length * 2);
+            }
+            length += deflater.deflate(compressed, length, compressed.length - length);
+        }
+        return length;
+    }
+
+    private void compactSegments() {
+        File[] segments = segments(directory);
+        List<File> sealed = new ArrayList<>();
+        for (File segment : segments) {
+            if (!segment.equals(activeSegment)) sealed.add(segment);
+        }
+
+        for (int i = 0; i < sealed.size() - fullSegments; i++) {
+            try {
+                thin(sealed.get(i));
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        }
+
+        long total = 0;
+        for (File segment : segments) {
+            total += segment.length();
+        }
+        for (int i = 0; i < sealed.size() && total > maxBytes; i++) {
+            total -= sealed.get(i).length();
+            sealed.get(i).delete();
+        }
+    }
+
+    private void thin(File segment) throws IOException {
+        List<Long> versions = new ArrayList<>();
+        List<Long> times = new ArrayList<>();
+        List<double[]> states = new ArrayList<>();
+        int[] sizes = null;
+        double learningRate = 0;
+        boolean thinned = true;
+        long baseVersion = 0;
+
+        try (DataInputStream in = openSegment(segment)) {
+            Record record = new Record();
+            Inflater inflater = new Inflater();
+            double[] state = null;
+            while (readRecord(in, record)) {
+                if (record.kind == BASE) {
+                    if (state != null) break;
+                    sizes = record.layerSizes;
+                    learningRate = record.learningRate;
+                    baseVersion = record.version;
+                } else if (state == null) {
+                    break;
+                }
+                state = decode(record, state, inflater);
+                if ((record.version - baseVersion) % thinFactor != 0) {
+                    thinned = false;
+                    continue;
+                }
+                versions.add(record.version);
+                times.add(record.timeMillis);
+                states.add(state.clone());
+            }
+            inflater.end();
+        }
+        if (thinned || states.isEmpty()) return;
+
+        File temporary = new File(segment.getPath() + ".tmp");
+        try (DataOutputStream thinOut = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(temporary)))) {
+            for (int i = 0; i < states.size(); i++) {
+                writeRecord(thinOut, i == 0 ? BASE : DELTA, versions.get(i), times.get(i), sizes, learningRate,
+                        states.get(i), i == 0 ? null : states.get(i - 1));
+            }
+        }
+        Files.move(temporary.toPath(), segment.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    public static List<Entry> list(File directory) {
+        List<Entry> entries = new ArrayList<>();
+        for (File segment : segments(directory)) {
+            try (DataInputStream in = openSegment(segment)) {
+                Record record = new Record();
+                while (readRecord(in, record)) {
+                    entries.add(new Entry(record.version, record.timeMillis, record.kind == BASE, record.bytes, segment));
+                }
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        }
+        return entries;
+    }
+
+    public static long latestVersion(File directory) {
+        File[] segments = segments(directory);
+        for (int i = segments.length - 1; i >= 0; i--) {
+            long latest = -1;
+            try (DataInputStream in = openSegment(segments[i])) {
+                Record record = new Record();
+                while (readRecord(in, record)) {
+                    latest = record.version;
+                }
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+            if (latest >= 0) return latest;
+        }
+        return -1;
+    }
+
+    public static NeuralNetwork load(File directory, long version) {
+        File[] segments = segments(directory);
+        for (int i = segments.length - 1; i >= 0; i--) {
+            if (segmentBase(segments[i]) > version) continue;
+
+            try (DataInputStream in = openSegment(segments[i])) {
+                Record record = new Record();
+                Inflater inflater = new Inflater();
+                NeuralNetwork network = null;
+                double[] state = null;
+                while (readRecord(in, record) && record.version <= version) {
+                    if (record.kind == BASE) {
+                        network = new NeuralNetwork(record.layerSizes, record.learningRate);
+                    } else if (state == null) {
+                        break;
+                    }
+                    state = decode(record, state, inflater);
+                    if (record.version == version) {
+                        network.setParameters(state);
+                        inflater.end();
+                        return network;
+                    }
+                }
+                inflater.end();
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+            return null;
+        }
+        return null;
+    }
+
+    private static File[] segments(File directory) {
+        File[] files = directory.listFiles((dir, name) -> name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX));
+        if (files == null) return new File[0];
+        Arrays.sort(files);
+        return files;
+    }
+
+    private static long segmentBase(File segment) {
+        String name = segment.getName();
+        return Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+    }
+
+    private static DataInputStream openSegment(File segment) throws IOException {
+        return new DataInputStream(new BufferedInputStream(new FileInputStream(segment)));
+    }
+
+    private static boolean readRecord(DataInputStream in, Record record) throws IOException {
+        try {
+            if (in.readInt() != MAGIC) return false;
+            record.kind = in.readByte();
+            record.version = in.readLong();
+            record.timeMillis = in.readLong();
+            if (record.kind == BASE) {
+                record.layerSizes = new int[in.readInt()];
+                for (int l = 0; l < record.layerSizes.length; l++) {
+                    record.layerSizes[l] = in.readInt();
+                }
+                record.learningRate = in.readDouble();
+            }
+            record.count = in.readInt();
+            record.length = in.readInt();
+            long checksum = in.readLong();
+            if (record.payload.length < record.length) {
+                record.payload = new byte[record.length];
+            }
+            in.readFully(record.payload, 0, record.length);
+            record.bytes = 37 + record.length + (record.kind == BASE ? 12 + 4 * record.layerSizes.length : 0);
+
+            CRC32 crc = new CRC32();
+            crc.update(record.payload, 0, record.length);
+            return crc.getValue() == checksum;
+        } catch (EOFException e) {
+            return false;
+        }
+    }
+
+    private static double[] decode(Record record, double[] reference, Inflater inflater) throws IOException {
+        int n = record.count;
+        byte[] plane = new byte[n * 8];
+        inflater.reset();
+        inflater.setInput(record.payload, 0, record.length);
+        try {
+            int read = 0;
+            while (read < plane.length && !inflater.finished()) {
+                read += inflater.inflate(plane, read, plane.length - read);
+            }
+        } catch (DataFormatException e) {
+            throw new IOException(e);
+        }
+
+        double[] state = new double[n];
+        for (int i = 0; i < n; i++) {
+            long bits = 0;
+            for (int b = 0; b < 8; b++) {
+                bits = (bits << 8) | (plane[b * n + i] & 0xffL);
+            }
+            if (record.kind == DELTA) {
+                bits ^= Double.doubleToRawLongBits(reference[i]);
+            }
+            state[i] = Double.longBitsToDouble(bits);
+        }
+        return state;
+    }
+
+    @Override
+    public void close() {
+        if (writer.isShutdown()) return;
+        writer.execute(this::closeSegment);
+        writer.shutdown();
+        try {
+            writer.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,154 @@
+package com.demo.ai;
+
+public class FeaturePipeline {
+    public static final int MY_X = 0;
+    public static final int MY_Y = 1;
+    public static final int OPPONENT_X = 2;
+    public static final int OPPONENT_Y = 3;
+    public static final int MY_HEALTH = 4;
+    public static final int OPPONENT_HEALTH = 5;
+    public static final int ON_GROUND = 6;
+    public static final int ATTACKING = 7;
+    public static final int OPPONENT_ATTACKING = 8;
+    public static final int VELOCITY_Y = 9;
+    public static final int FACING_OPPONENT = 10;
+    public static final int ATTACK_PROGRESS = 11;
+    public static final int OPPONENT_ATTACK_PROGRESS = 12;
+    public static final int RAW_SIZE = 13;
+
+    public static final int BASE_FEATURES = 10;
+    public static final int TEMPORAL_FEATURES = 4;
+
+    private final int historyLength;
+    private final int actionHistory;
+    private final int actionCount;
+    private final boolean temporal;
+
+    private final double[] current = new double[RAW_SIZE];
+    private final double[] history;
+    private int historyHead = 0;
+    private int historySize = 0;
+
+    private final int[] actions;
+    private int actionHead = 0;
+    private int actionSize = 0;
+
+    public FeaturePipeline(int historyLength, int actionHistory, int actionCount) {
+        this.historyLength = Math.max(1, historyLength);
+        this.actionHistory = actionHistory;
+        this.actionCount = actionCount;
+        this.temporal = historyLength > 0;
+        this.history = new double[this.historyLength * RAW_SIZE];
+        this.actions = new int[Math.max(1, actionHistory)];
+    }
+
+    public static FeaturePipeline forInputSize(int inputSize, int historyLength, int actionCount) {
+        if (inputSize == BASE_FEATURES) {
+            return new FeaturePipeline(0, 0, actionCount);
+        }
+        int actionFeatures = inputSize - BASE_FEATURES - TEMPORAL_FEATURES;
+        if (actionFeatures < 0 || actionFeatures % actionCount != 0) {
+            throw new IllegalArgumentException("No feature layout produces " + inputSize + " inputs");
+        }
+        return new FeaturePipeline(Math.max(2, historyLength), actionFeatures / actionCount, actionCount);
+    }
+
+    public static int inputSize(int historyLength, int actionHistory, int actionCount) {
+        if (historyLength <= 0) return BASE_FEATURES;
+        return BASE_FEATURES + TEMPORAL_FEATURES + actionHistory * actionCount;
+    }
+
+    public int getInputSize() {
+        return temporal ? inputSize(historyLength, actionHistory, actionCount) : BASE_FEATURES;
+    }
+
+    public double[] current() {
+        return current;
+    }
+
+    public void commit() {
+        System.arraycopy(current, 0, history, historyHead * RAW_SIZE, RAW_SIZE);
+        historyHead = (historyHead + 1) % historyLength;
+        if (historySize < historyLength) historySize++;
+    }
+
+    public void recordAction(int action) {
+        if (actionHistory == 0) return;
+        actions[actionHead] = action;
+        actionHead = (actionHead + 1) % actionHistory;
+        if (actionSize < actionHistory) actionSize++;
+    }
+
+    public FeaturePipeline copy() {
+        FeaturePipeline copy = new FeaturePipeline(temporal ? historyLength : 0, actionHistory, actionCount);
+        copy.copyFrom(this);
+        return copy;
+    }
+
+    public void copyFrom(FeaturePipeline other) {
+        if (other.history.length != history.length || other.actions.length != actions.length) {
+            throw new IllegalArgumentException("pipelines have different layouts");
+        }
+        System.arraycopy(other.current, 0, current, 0, RAW_SIZE);
+        System.arraycopy(other.history, 0, history, 0, history.length);
+        System.arraycopy(other.actions, 0, actions, 0, actions.length);
+        historyHead = other.historyHead;
+        historySize = other.historySize;
+        actionHead = other.actionHead;
+        actionSize = other.actionSize;
+    }
+
+    public void reset() {
+        historyHead = 0;
+        historySize = 0;
+        actionHead = 0;
+        actionSize = 0;
+    }
+
+    public void build(double[] out) {
+        double[] c = current;
+        double myCenterX = c[MY_X];
+        double opponentCenterX = c[OPPONENT_X];
+        double distance = Math.abs(opponentCenterX - myCenterX) / 400.0;
+
+        out[0] = (opponentCenterX - myCenterX) / 800.0;
+        out[1] = (c[OPPONENT_Y] - c[MY_Y]) / 400.0;
+        out[2] = c[MY_HEALTH] / 100.0;
+        out[3] = c[OPPONENT_HEALTH] / 100.0;
+        out[4] = c[ON_GROUND];
+        out[5] = c[ATTACKING];
+        out[6] = c[OPPONENT_ATTACKING];
+        out[7] = c[VELOCITY_Y] / 15.0;
+        out[8] = distance < 0.5 ? 1.0 : -1.0;
+        out[9] = c[FACING_OPPONENT];
+        if (!temporal) return;
+
+        int n = BASE_FEATURES;
+        if (historySize == 0) {
+            out[n++] = 0;
+            out[n++] = 0;
+        } else {
+            int oldest = historySize < historyLength ? 0 : historyHead;
+            int base = oldest * RAW_SIZE;
+            double frames = historySize;
+            out[n++] = clamp((opponentCenterX - history[base + OPPONENT_X]) / (frames * 8.0));
+            out[n++] = clamp((c[OPPONENT_Y] - history[base + OPPONENT_Y]) / (frames * 15.0));
+        }
+        out[n++] = c[OPPONENT_ATTACK_PROGRESS];
+        out[n++] = c[ATTACK_PROGRESS];
+
+        for (int k = 0; k < actionHistory; k++) {
+            int action = -1;
+            if (k < actionSize) {
+                action = actions[(actionHead - 1 - k + actionHistory) % actionHistory];
+            }
+            for (int a = 0; a < actionCount; a++) {
+                out[n++] = a == action ? 1.0 : 0.0;
+            }
+        }
+    }
+
+    private static double clamp(double value) {
+        return Math.max(-1.0, Math.min(1.0, value));
+    }
+}
@@ -0,0 +1,43 @@
+package com.demo.ai;
+
+import java.util.Random;
+
+public class InferenceContext {
+    final double[] arena;
+    final int deltaBase;
+    final double[] outputs;
+    int lastAction;
+    private Random random;
+
+    InferenceContext(int activationCount, int outputSize, Random random) {
+        this.arena = new double[activationCount * 2];
+        this.deltaBase = activationCount;
+        this.outputs = new double[outputSize];
+        this.random = random;
+    }
+
+    public void setSeed(long seed) {
+        random = new Random(seed);
+    }
+
+    public int selectAction(double[] qValues, double epsilon) {
+        if (random.nextDouble() < epsilon) {
+            lastAction = random.nextInt(qValues.length);
+        } else {
+            int maxIndex = 0;
+            double maxValue = qValues[0];
+            for (int i = 1; i < qValues.length; i++) {
+                if (qValues[i] > maxValue) {
+                    maxValue = qValues[i];
+                    maxIndex = i;
+                }
+            }
+            lastAction = maxIndex;
+        }
+        return lastAction;
+    }
+
+    public int getLastAction() {
+        return lastAction;
+    }
+}
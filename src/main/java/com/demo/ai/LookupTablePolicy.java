@@ -0,0 +1,137 @@
+package com.demo.ai;
+
+import java.io.*;
+import java.util.Arrays;
+import java.util.List;
+
+public class LookupTablePolicy implements Serializable {
+    private static final long serialVersionUID = 1L;
+    private static final int CONTEXT_SAMPLES = 8;
+
+    private final double[] min;
+    private final double[] scale;
+    private final int[] bins;
+    private final int[] strides;
+    private final byte[] actions;
+
+    public LookupTablePolicy(double[] min, double[] max, int[] bins) {
+        this.min = min.clone();
+        this.bins = bins.clone();
+        this.scale = new double[bins.length];
+        this.strides = new int[bins.length];
+
+        int cells = 1;
+        for (int i = bins.length - 1; i >= 0; i--) {
+            scale[i] = bins[i] / (max[i] - min[i]);
+            strides[i] = cells;
+            cells *= bins[i];
+        }
+        actions = new byte[cells];
+    }
+
+    public static LookupTablePolicy forAIState() {
+        double[] min = { -1, -1, 0, 0, -1, -1, -1, -1, -1, -1 };
+        double[] max = { 1, 1, 1, 1, 1, 1, 1, 1, 1, 1 };
+        int[] bins = { 16, 4, 4, 4, 2, 2, 2, 4, 2, 2 };
+        return new LookupTablePolicy(min, max, bins);
+    }
+
+    public int selectAction(double[] state) {
+        return actions[cellIndex(state)];
+    }
+
+    public int cellIndex(double[] state) {
+        int index = 0;
+        for (int i = 0; i < bins.length; i++) {
+            int b = (int) ((state[i] - min[i]) * scale[i]);
+            if (b < 0) b = 0;
+            else if (b >= bins[i]) b = bins[i] - 1;
+            index += b * strides[i];
+        }
+        return index;
+    }
+
+    public void cellCenter(int cell, double[] out) {
+        for (int i = 0; i < bins.length; i++) {
+            int b = (cell / strides[i]) % bins[i];
+            out[i] = min[i] + (b + 0.5) / scale[i];
+        }
+    }
+
+    public int getCellCount() {
+        return actions.length;
+    }
+
+    public int fit(NeuralNetwork teacher, List<double[]> samples) {
+        int actionCount = teacher.getOutputSize();
+        int[] votes = new int[actions.length * actionCount];
+        boolean[] visited = new boolean[actions.length];
+        InferenceContext inference = teacher.newContext();
+
+        for (double[] state : samples) {
+            int cell = cellIndex(state);
+            votes[cell * actionCount + greedyAction(teacher, inference, state)]++;
+            visited[cell] = true;
+        }
+
+        int visitedCells = 0;
+        int contexts = Math.min(CONTEXT_SAMPLES, samples.size());
+        int[] contextVotes = new int[actionCount];
+        double[] probe = new double[teacher.getInputSize()];
+        for (int cell = 0; cell < actions.length; cell++) {
+            if (visited[cell]) {
+                actions[cell] = (byte) mostVoted(votes, cell * actionCount, actionCount);
+                visitedCells++;
+            } else if (contexts > 0) {
+                Arrays.fill(contextVotes, 0);
+                cellCenter(cell, probe);
+                for (int c = 0; c < contexts; c++) {
+                    double[] context = samples.get((int) ((long) c * samples.size() / contexts));
+                    System.arraycopy(context, bins.length, probe, bins.length, probe.length - bins.length);
+                    contextVotes[greedyAction(teacher, inference, probe)]++;
+                }
+                actions[cell] = (byte) mostVoted(contextVotes, 0, actionCount);
+            }
+        }
+        return visitedCells;
+    }
+
+    private static int mostVoted(int[] votes, int offset, int actionCount) {
+        int best = 0;
+        for (int a = 1; a < actionCount; a++) {
+            if (votes[offset + a] > votes[offset + best]) best = a;
+        }
+        return best;
+    }
+
+    public double agreement(NeuralNetwork teacher, List<double[]> samples) {
+        if (samples.isEmpty()) return 0;
+
+        InferenceContext inference = teacher.newContext();
+        int matches = 0;
+        for (double[] state : samples) {
+            if (selectAction(state) == greedyAction(teacher, inference, state)) matches++;
+        }
+        return (double) matches / samples.size();
+    }
+
+    private static int greedyAction(NeuralNetwork teacher, InferenceContext inference, double[] state) {
+        return inference.selectAction(teacher.forward(inference, state), 0);
+    }
+
+    public void save(String filename) {
+        try (ObjectOutputStream oos = new ObjectOutputStream(new FileOutputStream(filename))) {
+            oos.writeObject(this);
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    public static LookupTablePolicy load(String filename) {
+        try (ObjectInputStream ois = new ObjectInputStream(new FileInputStream(filename))) {
+            return (LookupTablePolicy) ois.readObject();
+        } catch (IOException | ClassNotFoundException e) {
+            return null;
+        }
+    }
+}
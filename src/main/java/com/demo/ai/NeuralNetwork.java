@@ -1,162 +1,466 @@
 package com.demo.ai;
 
 import java.io.*;
+import java.util.Arrays;
 import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
 
 public class NeuralNetwork implements Serializable {
     private static final long serialVersionUID = 1L;
-    
-    private double[][] weightsInputHidden;
-    private double[][] weightsHiddenOutput;
-    private double[] biasHidden;
-    private double[] biasOutput;
-    private int inputSize;
-    private int hiddenSize;
-    private int outputSize;
+    private static final int PARALLEL_THRESHOLD = Integer.getInteger("betterenemy.kernel.parallelThreshold", 1 << 16);
+    private static final int LEAF_WORK = Integer.getInteger("betterenemy.kernel.leafWork", 1 << 14);
+    private static final ForkJoinPool KERNEL_POOL = ForkJoinPool.commonPool();
+
+    private int[] layerSizes;
+    private double[][] weights;
+    private double[][] biases;
     private double learningRate;
-    private transient Random random;
-    
-    private double[] lastInputs;
-    private int lastAction;
-    private double[] hiddenActivations;
-    
+
+    private transient int inputSize;
+    private transient int outputSize;
+    private transient int[] offsets;
+    private transient int activationCount;
+    private transient InferenceContext learnerContext;
+    private transient boolean frozen;
+
     public NeuralNetwork(int inputSize, int hiddenSize, int outputSize, double learningRate) {
-        this.inputSize = inputSize;
-        this.hiddenSize = hiddenSize;
-        this.outputSize = outputSize;
+        this(new int[] { inputSize, hiddenSize, outputSize }, learningRate);
+    }
+
+    public NeuralNetwork(int[] layerSizes, double learningRate) {
+        if (layerSizes.length < 2) {
+            throw new IllegalArgumentException("a network needs at least an input and an output layer");
+        }
+        this.layerSizes = layerSizes.clone();
         this.learningRate = learningRate;
-        this.random = new Random();
-        
-        weightsInputHidden = new double[inputSize][hiddenSize];
-        weightsHiddenOutput = new double[hiddenSize][outputSize];
-        biasHidden = new double[hiddenSize];
-        biasOutput = new double[outputSize];
-        
+
+        int layers = layerSizes.length - 1;
+        weights = new double[layers][];
+        biases = new double[layers][];
+        for (int l = 0; l < layers; l++) {
+            weights[l] = new double[layerSizes[l] * layerSizes[l + 1]];
+            biases[l] = new double[layerSizes[l + 1]];
+        }
+
         initializeWeights();
+        initializeBuffers();
     }
-    
+
     private void initializeWeights() {
-        if (random == null) random = new Random();
-        
-        double scale1 = Math.sqrt(2.0 / inputSize);
-        double scale2 = Math.sqrt(2.0 / hiddenSize);
-        
-        for (int i = 0; i < inputSize; i++) {
-            for (int j = 0; j < hiddenSize; j++) {
-                weightsInputHidden[i][j] = random.nextGaussian() * scale1;
+        Random random = new Random();
+        for (int l = 0; l < weights.length; l++) {
+            double scale = Math.sqrt(2.0 / layerSizes[l]);
+            for (int i = 0; i < weights[l].length; i++) {
+                weights[l][i] = random.nextGaussian() * scale;
             }
-        }
-        
-        for (int i = 0; i < hiddenSize; i++) {
-            for (int j = 0; j < outputSize; j++) {
-                weightsHiddenOutput[i][j] = random.nextGaussian() * scale2;
+            for (int i = 0; i < biases[l].length; i++) {
+                biases[l][i] = 0.01;
             }
         }
-        
-        for (int i = 0; i < hiddenSize; i++) {
-            biasHidden[i] = 0.01;
+    }
+
+    private void initializeBuffers() {
+        inputSize = layerSizes[0];
+        outputSize = layerSizes[layerSizes.length - 1];
+        offsets = new int[layerSizes.length];
+        int total = 0;
+        for (int l = 0; l < layerSizes.length; l++) {
+            offsets[l] = total;
+            total += layerSizes[l];
         }
-        
-        for (int i = 0; i < outputSize; i++) {
-            biasOutput[i] = 0.01;
+
+        activationCount = total;
+        learnerContext = null;
+    }
+
+    public InferenceContext newContext() {
+        return new InferenceContext(activationCount, outputSize, new Random());
+    }
+
+    public NeuralNetwork frozenCopy() {
+        NeuralNetwork copy = copy();
+        copy.frozen = true;
+        return copy;
+    }
+
+    public boolean isFrozen() {
+        return frozen;
+    }
+
+    private void checkMutable() {
+        if (frozen) {
+            throw new IllegalStateException("network is frozen");
+        }
+    }
+
+    public double[] forward(InferenceContext context, double[] inputs) {
+        if (context.arena.length != activationCount * 2 || context.outputs.length != outputSize) {
+            throw new IllegalArgumentException("context does not match layers " + Arrays.toString(layerSizes));
         }
+        return propagate(context, inputs);
     }
-    
-    private double relu(double x) {
-        return Math.max(0, x);
+
+    private double[] propagate(InferenceContext context, double[] inputs) {
+        double[] a = context.arena;
+        System.arraycopy(inputs, 0, a, 0, inputSize);
+
+        int last = weights.length - 1;
+        for (int l = 0; l <= last; l++) {
+            denseForward(a, weights[l], biases[l], offsets[l], layerSizes[l], offsets[l + 1], layerSizes[l + 1], l < last);
+        }
+
+        System.arraycopy(a, offsets[last + 1], context.outputs, 0, outputSize);
+        return context.outputs;
     }
-    
-    public double[] forward(double[] inputs) {
-        lastInputs = inputs.clone();
-        hiddenActivations = new double[hiddenSize];
-        
-        for (int j = 0; j < hiddenSize; j++) {
-            double sum = biasHidden[j];
-            for (int i = 0; i < inputSize; i++) {
-                sum += inputs[i] * weightsInputHidden[i][j];
+
+    private static boolean parallel(int inSize, int outSize) {
+        return (long) inSize * outSize >= PARALLEL_THRESHOLD && KERNEL_POOL.getParallelism() > 1;
+    }
+
+    private static void denseForward(double[] a, double[] w, double[] b, int inOffset, int inSize, int outOffset, int outSize,
+                                     boolean relu) {
+        if (parallel(inSize, outSize)) {
+            KERNEL_POOL.invoke(new DenseKernel(DenseKernel.FORWARD, a, w, b, 0, inOffset, inSize, outOffset, outSize, relu, 0, 0, outSize));
+            return;
+        }
+        forwardRows(a, w, b, inOffset, inSize, outOffset, relu, 0, outSize);
+    }
+
+    private static void forwardRows(double[] a, double[] w, double[] b, int inOffset, int inSize, int outOffset, boolean relu,
+                                    int from, int to) {
+        for (int o = from; o < to; o++) {
+            double sum = b[o];
+            int row = o * inSize;
+            for (int i = 0; i < inSize; i++) {
+                sum += w[row + i] * a[inOffset + i];
+            }
+            a[outOffset + o] = relu && sum < 0 ? 0 : sum;
+        }
+    }
+
+    private static void propagateColumns(double[] a, int deltaBase, double[] w, int inOffset, int inSize, int outOffset, int outSize,
+                                         int from, int to) {
+        int inDelta = deltaBase + inOffset;
+        int outDelta = deltaBase + outOffset;
+        for (int i = from; i < to; i++) {
+            a[inDelta + i] = 0;
+        }
+        for (int o = 0; o < outSize; o++) {
+            double delta = a[outDelta + o];
+            if (delta == 0) continue;
+
+            int row = o * inSize;
+            for (int i = from; i < to; i++) {
+                a[inDelta + i] += w[row + i] * delta;
             }
-            hiddenActivations[j] = relu(sum);
-        }
-        
-        double[] outputs = new double[outputSize];
-        for (int j = 0; j < outputSize; j++) {
-            double sum = biasOutput[j];
-            for (int i = 0; i < hiddenSize; i++) {
-                sum += hiddenActivations[i] * weightsHiddenOutput[i][j];
+        }
+        for (int i = from; i < to; i++) {
+            if (a[inOffset + i] <= 0) a[inDelta + i] = 0;
+        }
+    }
+
+    private static void updateRows(double[] a, int deltaBase, double[] w, double[] b, int inOffset, int inSize, int outOffset,
+                                   double learningRate, int from, int to) {
+        int outDelta = deltaBase + outOffset;
+        for (int o = from; o < to; o++) {
+            double delta = a[outDelta + o];
+            if (delta == 0) continue;
+
+            double step = learningRate * delta;
+            b[o] += step;
+            int row = o * inSize;
+            for (int i = 0; i < inSize; i++) {
+                w[row + i] += step * a[inOffset + i];
             }
-            outputs[j] = sum;
         }
-        
-        return outputs;
     }
-    
-    public int selectAction(double[] qValues, double epsilon) {
-        if (random == null) random = new Random();
-        
-        if (random.nextDouble() < epsilon) {
-            lastAction = random.nextInt(outputSize);
-        } else {
-            int maxIndex = 0;
-            double maxValue = qValues[0];
-            for (int i = 1; i < qValues.length; i++) {
-                if (qValues[i] > maxValue) {
-                    maxValue = qValues[i];
-                    maxIndex = i;
-                }
+
+    private static final class DenseKernel extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        static final int FORWARD = 0;
+        static final int PROPAGATE = 1;
+        static final int UPDATE = 2;
+
+        private final int kind;
+        private final double[] a;
+        private final double[] w;
+        private final double[] b;
+        private final int deltaBase;
+        private final int inOffset;
+        private final int inSize;
+        private final int outOffset;
+        private final int outSize;
+        private final boolean relu;
+        private final double learningRate;
+        private final int from;
+        private final int to;
+
+        DenseKernel(int kind, double[] a, double[] w, double[] b, int deltaBase, int inOffset, int inSize, int outOffset, int outSize,
+                    boolean relu, double learningRate, int from, int to) {
+            this.kind = kind;
+            this.a = a;
+            this.w = w;
+            this.b = b;
+            this.deltaBase = deltaBase;
+            this.inOffset = inOffset;
+            this.inSize = inSize;
+            this.outOffset = outOffset;
+            this.outSize = outSize;
+            this.relu = relu;
+            this.learningRate = learningRate;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            int span = kind == PROPAGATE ? outSize : inSize;
+            if ((long) (to - from) * span > LEAF_WORK && to - from > 1) {
+                int mid = (from + to) >>> 1;
+                invokeAll(split(from, mid), split(mid, to));
+                return;
             }
-            lastAction = maxIndex;
-        }
-        return lastAction;
-    }
-    
-    public void learn(double reward, double[] nextState, double gamma, boolean done) {
-        if (lastInputs == null) return;
-        
-        double[] nextQValues = forward(nextState);
-        double maxNextQ = done ? 0 : getMax(nextQValues);
-        
-        double[] hidden = new double[hiddenSize];
-        for (int j = 0; j < hiddenSize; j++) {
-            double sum = biasHidden[j];
-            for (int i = 0; i < inputSize; i++) {
-                sum += lastInputs[i] * weightsInputHidden[i][j];
+            switch (kind) {
+                case FORWARD:
+                    forwardRows(a, w, b, inOffset, inSize, outOffset, relu, from, to);
+                    break;
+                case PROPAGATE:
+                    propagateColumns(a, deltaBase, w, inOffset, inSize, outOffset, outSize, from, to);
+                    break;
+                default:
+                    updateRows(a, deltaBase, w, b, inOffset, inSize, outOffset, learningRate, from, to);
+                    break;
             }
-            hidden[j] = relu(sum);
         }
-        
-        double currentQ = biasOutput[lastAction];
-        for (int i = 0; i < hiddenSize; i++) {
-            currentQ += hidden[i] * weightsHiddenOutput[i][lastAction];
+
+        private DenseKernel split(int from, int to) {
+            return new DenseKernel(kind, a, w, b, deltaBase, inOffset, inSize, outOffset, outSize, relu, learningRate, from, to);
+        }
+    }
+
+    public double learn(double[] stateInputs, int action, double reward, double[] nextState, double gamma, boolean done) {
+        return learn(stateInputs, action, reward, nextState, gamma, done, this);
+    }
+
+    public double learn(double[] stateInputs, int action, double reward, double[] nextState, double gamma, boolean done,
+                        NeuralNetwork targetNetwork) {
+        checkMutable();
+        if (learnerContext == null) {
+            learnerContext = newContext();
         }
-        
+        InferenceContext context = learnerContext;
+        double maxNextQ = done ? 0 : getMax(targetNetwork.propagate(context, nextState));
+
+        propagate(context, stateInputs);
+        double currentQ = context.arena[offsets[weights.length] + action];
+
         double targetQ = reward + gamma * maxNextQ;
-        double tdError = targetQ - currentQ;
-        tdError = Math.max(-1.0, Math.min(1.0, tdError));
-        
-        for (int i = 0; i < hiddenSize; i++) {
-            weightsHiddenOutput[i][lastAction] += learningRate * tdError * hidden[i];
-        }
-        biasOutput[lastAction] += learningRate * tdError;
-        
-        for (int j = 0; j < hiddenSize; j++) {
-            if (hidden[j] > 0) { 
-                double gradient = tdError * weightsHiddenOutput[j][lastAction];
-                for (int i = 0; i < inputSize; i++) {
-                    weightsInputHidden[i][j] += learningRate * gradient * lastInputs[i];
+        double rawTdError = targetQ - currentQ;
+        double tdError = Math.max(-1.0, Math.min(1.0, rawTdError));
+
+        backward(context, action, tdError);
+        return rawTdError;
+    }
+
+    private void backward(InferenceContext context, int action, double tdError) {
+        double[] a = context.arena;
+        int deltaBase = context.deltaBase;
+        int last = weights.length - 1;
+        int outDelta = deltaBase + offsets[last + 1];
+        for (int o = 0; o < outputSize; o++) {
+            a[outDelta + o] = 0;
+        }
+        a[outDelta + action] = tdError;
+
+        for (int l = last; l >= 0; l--) {
+            denseBackward(a, deltaBase, weights[l], biases[l], offsets[l], layerSizes[l], offsets[l + 1], layerSizes[l + 1], l > 0);
+        }
+    }
+
+    private void denseBackward(double[] a, int deltaBase, double[] w, double[] b, int inOffset, int inSize, int outOffset, int outSize,
+                               boolean propagate) {
+        if (parallel(inSize, outSize)) {
+            if (propagate) {
+                KERNEL_POOL.invoke(new DenseKernel(DenseKernel.PROPAGATE, a, w, b, deltaBase, inOffset, inSize, outOffset, outSize,
+                        false, 0, 0, inSize));
+            }
+            KERNEL_POOL.invoke(new DenseKernel(DenseKernel.UPDATE, a, w, b, deltaBase, inOffset, inSize, outOffset, outSize,
+                    false, learningRate, 0, outSize));
+            return;
+        }
+
+        int inDelta = deltaBase + inOffset;
+        int outDelta = deltaBase + outOffset;
+
+        if (propagate) {
+            for (int i = 0; i < inSize; i++) {
+                a[inDelta + i] = 0;
+            }
+        }
+
+        for (int o = 0; o < outSize; o++) {
+            double delta = a[outDelta + o];
+            if (delta == 0) continue;
+
+            double step = learningRate * delta;
+            b[o] += step;
+            int row = o * inSize;
+            if (propagate) {
+                for (int i = 0; i < inSize; i++) {
+                    a[inDelta + i] += w[row + i] * delta;
+                    w[row + i] += step * a[inOffset + i];
                 }
-                biasHidden[j] += learningRate * gradient;
+            } else {
+                for (int i = 0; i < inSize; i++) {
+                    w[row + i] += step * a[inOffset + i];
+                }
+            }
+        }
+
+        if (propagate) {
+            for (int i = 0; i < inSize; i++) {
+                if (a[inOffset + i] <= 0) a[inDelta + i] = 0;
             }
         }
     }
-    
-    private double getMax(double[] arr) {
+
+    public static double getMax(double[] arr) {
         double max = arr[0];
         for (int i = 1; i < arr.length; i++) {
             if (arr[i] > max) max = arr[i];
         }
         return max;
     }
-    
+
+    public NeuralNetwork copy() {
+        NeuralNetwork copy = new NeuralNetwork(layerSizes, learningRate);
+        copy.copyWeightsFrom(this);
+        return copy;
+    }
+
+    public NeuralNetwork withInputSize(int newInputSize) {
+        if (newInputSize < inputSize) {
+            throw new IllegalArgumentException("cannot shrink inputs from " + inputSize + " to " + newInputSize);
+        }
+        int[] sizes = layerSizes.clone();
+        sizes[0] = newInputSize;
+        NeuralNetwork widened = new NeuralNetwork(sizes, learningRate);
+        widened.copyWeightsFrom(this, 1);
+
+        double[] w = widened.weights[0];
+        for (int o = 0; o < layerSizes[1]; o++) {
+            for (int i = 0; i < newInputSize; i++) {
+                w[o * newInputSize + i] = i < inputSize ? weights[0][o * inputSize + i] : 0;
+            }
+        }
+        System.arraycopy(biases[0], 0, widened.biases[0], 0, biases[0].length);
+        widened.frozen = frozen;
+        return widened;
+    }
+
+    public void copyWeightsFrom(NeuralNetwork other) {
+        copyWeightsFrom(other, 0);
+    }
+
+    private void copyWeightsFrom(NeuralNetwork other, int firstLayer) {
+        checkMutable();
+        for (int l = firstLayer; l < weights.length; l++) {
+            System.arraycopy(other.weights[l], 0, weights[l], 0, weights[l].length);
+            System.arraycopy(other.biases[l], 0, biases[l], 0, biases[l].length);
+        }
+    }
+
+    public int getParameterCount() {
+        int count = 0;
+        for (int l = 0; l < weights.length; l++) {
+            count += weights[l].length + biases[l].length;
+        }
+        return count;
+    }
+
+    public void getParameters(double[] out) {
+        int n = 0;
+        for (int l = 0; l < weights.length; l++) {
+            System.arraycopy(weights[l], 0, out, n, weights[l].length);
+            n += weights[l].length;
+            System.arraycopy(biases[l], 0, out, n, biases[l].length);
+            n += biases[l].length;
+        }
+    }
+
+    public void setParameters(double[] in) {
+        checkMutable();
+        int n = 0;
+        for (int l = 0; l < weights.length; l++) {
+            System.arraycopy(in, n, weights[l], 0, weights[l].length);
+            n += weights[l].length;
+            System.arraycopy(in, n, biases[l], 0, biases[l].length);
+            n += biases[l].length;
+        }
+    }
+
+    public double getLearningRate() {
+        return learningRate;
+    }
+
+    public int getInputSize() {
+        return inputSize;
+    }
+
+    public int getOutputSize() {
+        return outputSize;
+    }
+
+    public int[] getLayerSizes() {
+        return layerSizes.clone();
+    }
+
+    public boolean hasLayerSizes(int[] sizes) {
+        return Arrays.equals(layerSizes, sizes);
+    }
+
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        ObjectInputStream.GetField fields = in.readFields();
+        learningRate = fields.get("learningRate", 0.01);
+        layerSizes = (int[]) fields.get("layerSizes", null);
+
+        if (layerSizes != null) {
+            weights = (double[][]) fields.get("weights", null);
+            biases = (double[][]) fields.get("biases", null);
+        } else {
+            readLegacyFields(fields);
+        }
+        initializeBuffers();
+    }
+
+    private void readLegacyFields(ObjectInputStream.GetField fields) throws IOException {
+        double[][] inputHidden = (double[][]) fields.get("weightsInputHidden", null);
+        double[][] hiddenOutput = (double[][]) fields.get("weightsHiddenOutput", null);
+        int in = fields.get("inputSize", 0);
+        int hidden = fields.get("hiddenSize", 0);
+        int out = fields.get("outputSize", 0);
+
+        layerSizes = new int[] { in, hidden, out };
+        weights = new double[][] { new double[in * hidden], new double[hidden * out] };
+        biases = new double[][] {
+            ((double[]) fields.get("biasHidden", null)).clone(),
+            ((double[]) fields.get("biasOutput", null)).clone()
+        };
+
+        for (int o = 0; o < hidden; o++) {
+            for (int i = 0; i < in; i++) {
+                weights[0][o * in + i] = inputHidden[i][o];
+            }
+        }
+        for (int o = 0; o < out; o++) {
+            for (int i = 0; i < hidden; i++) {
+                weights[1][o * hidden + i] = hiddenOutput[i][o];
+            }
+        }
+    }
+
     public void save(String filename) {
         try (ObjectOutputStream oos = new ObjectOutputStream(new FileOutputStream(filename))) {
             oos.writeObject(this);
@@ -164,12 +468,10 @@ public class NeuralNetwork implements Serializable {
             e.printStackTrace();
         }
     }
-    
+
     public static NeuralNetwork load(String filename) {
         try (ObjectInputStream ois = new ObjectInputStream(new FileInputStream(filename))) {
-            NeuralNetwork nn = (NeuralNetwork) ois.readObject();
-            nn.random = new Random();
-            return nn;
+            return (NeuralNetwork) ois.readObject();
         } catch (IOException | ClassNotFoundException e) {
             return null;
         }
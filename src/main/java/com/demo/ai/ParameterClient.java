@@ -0,0 +1,174 @@
+package com.demo.ai;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.util.Arrays;
+
+public class ParameterClient implements WeightSync {
+    public enum Encoding {
+        DENSE, FP16, TOP_K
+    }
+
+    private final SocketChannel channel;
+    private final Encoding encoding;
+    private final double topFraction;
+    private final long refreshIntervalNanos;
+    private final ByteBuffer header = ByteBuffer.allocate(ParameterProtocol.HEADER_BYTES + ParameterProtocol.WEIGHTS_HEADER_BYTES);
+    private ByteBuffer frame = ByteBuffer.allocate(0);
+    private double[] weights = new double[0];
+    private double[] base = new double[0];
+    private double[] delta = new double[0];
+    private double[] residual = new double[0];
+    private double[] sent = new double[0];
+    private float[] magnitudes = new float[0];
+
+    private long version = -1;
+    private long lastPull;
+    private long pushes;
+    private long stale;
+    private long bytesSent;
+
+    public ParameterClient(String host, int port, Encoding encoding, double topFraction, long refreshIntervalMillis) {
+        if (topFraction <= 0 || topFraction > 1) {
+            throw new IllegalArgumentException("topFraction must be in (0, 1]: " + topFraction);
+        }
+        this.encoding = encoding;
+        this.topFraction = topFraction;
+        this.refreshIntervalNanos = refreshIntervalMillis * 1_000_000L;
+        try {
+            channel = SocketChannel.open(new InetSocketAddress(host, port));
+            channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public long getVersion() { return version; }
+    public long getPushes() { return pushes; }
+    public long getStale() { return stale; }
+    public long getBytesSent() { return bytesSent; }
+
+    @Override
+    public void pull(NeuralNetwork network) {
+        resize(network.getParameterCount());
+        frame.clear();
+        frame.putInt(1).put(ParameterProtocol.PULL);
+        exchange();
+        adopt(network);
+    }
+
+    @Override
+    public boolean refresh(NeuralNetwork network) {
+        long now = System.nanoTime();
+        if (version >= 0 && now - lastPull < refreshIntervalNanos) {
+            return false;
+        }
+        long before = version;
+        pull(network);
+        return version != before;
+    }
+
+    @Override
+    public long push(NeuralNetwork network) {
+        if (version < 0) {
+            throw new IllegalStateException("pull the weights before pushing");
+        }
+        int count = network.getParameterCount();
+        network.getParameters(delta);
+        for (int i = 0; i < count; i++) {
+            delta[i] = delta[i] - base[i] + residual[i];
+        }
+
+        int selected = encoding == Encoding.TOP_K ? Math.max(1, (int) Math.ceil(count * topFraction)) : count;
+        frame.clear();
+        frame.putInt(ParameterProtocol.pushFrameBytes(encoding, count, selected) - Integer.BYTES);
+        frame.put(ParameterProtocol.PUSH);
+        frame.putLong(version);
+        frame.put((byte) encoding.ordinal());
+        frame.putInt(count);
+        ParameterProtocol.encode(frame, encoding, delta, selected, sent, magnitudes);
+        for (int i = 0; i < count; i++) {
+            residual[i] = delta[i] - sent[i];
+        }
+
+        byte status = exchange();
+        pushes++;
+        if (status == ParameterProtocol.STALE) {
+            stale++;
+            Arrays.fill(residual, 0);
+        }
+        adopt(network);
+        return version;
+    }
+
+    private byte exchange() {
+        try {
+            frame.flip();
+            bytesSent += frame.remaining();
+            while (frame.hasRemaining()) {
+                channel.write(frame);
+            }
+
+            header.clear();
+            readFully(header);
+            header.flip();
+            int length = header.getInt();
+            byte type = header.get();
+            version = header.getLong();
+            byte status = header.get();
+            int count = header.getInt();
+            if (type != ParameterProtocol.WEIGHTS || count != weights.length
+                    || length != ParameterProtocol.weightsFrameBytes(count) - Integer.BYTES) {
+                throw new IOException("server holds " + count + " parameters, expected " + weights.length);
+            }
+
+            frame.clear().limit(count * Double.BYTES);
+            readFully(frame);
+            frame.flip();
+            frame.asDoubleBuffer().get(weights);
+            lastPull = System.nanoTime();
+            return status;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void readFully(ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer) < 0) {
+                throw new EOFException("parameter server closed the connection");
+            }
+        }
+    }
+
+    private void adopt(NeuralNetwork network) {
+        System.arraycopy(weights, 0, base, 0, weights.length);
+        network.setParameters(weights);
+    }
+
+    private void resize(int count) {
+        if (weights.length == count) return;
+        weights = new double[count];
+        base = new double[count];
+        delta = new double[count];
+        residual = new double[count];
+        sent = new double[count];
+        magnitudes = new float[count];
+        frame = ByteBuffer.allocate(Math.max(ParameterProtocol.weightsFrameBytes(count),
+                ParameterProtocol.pushFrameBytes(Encoding.DENSE, count, count)));
+    }
+
+    @Override
+    public void close() {
+        try {
+            channel.close();
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+}
@@ -0,0 +1,156 @@
+package com.demo.ai;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+final class ParameterProtocol {
+    static final byte PULL = 1;
+    static final byte PUSH = 2;
+    static final byte WEIGHTS = 3;
+
+    static final byte PULLED = 0;
+    static final byte APPLIED = 1;
+    static final byte STALE = 2;
+
+    static final int HEADER_BYTES = Integer.BYTES + 1;
+    static final int WEIGHTS_HEADER_BYTES = Long.BYTES + 1 + Integer.BYTES;
+    static final int PUSH_HEADER_BYTES = Long.BYTES + 1 + Integer.BYTES;
+    static final int MAX_FRAME_BYTES = 64 << 20;
+
+    private ParameterProtocol() {
+    }
+
+    static int weightsFrameBytes(int count) {
+        return HEADER_BYTES + WEIGHTS_HEADER_BYTES + count * Double.BYTES;
+    }
+
+    static int pushFrameBytes(ParameterClient.Encoding encoding, int count, int selected) {
+        int payload;
+        switch (encoding) {
+            case FP16: payload = count * Short.BYTES; break;
+            case TOP_K: payload = Integer.BYTES + selected * (Integer.BYTES + Float.BYTES); break;
+            default: payload = count * Double.BYTES;
+        }
+        return HEADER_BYTES + PUSH_HEADER_BYTES + payload;
+    }
+
+    static void writeWeights(ByteBuffer out, long version, byte status, double[] weights) {
+        out.putInt(1 + WEIGHTS_HEADER_BYTES + weights.length * Double.BYTES);
+        out.put(WEIGHTS);
+        out.putLong(version);
+        out.put(status);
+        out.putInt(weights.length);
+        for (double w : weights) {
+            out.putDouble(w);
+        }
+    }
+
+    static void encode(ByteBuffer out, ParameterClient.Encoding encoding, double[] delta, int selected, double[] sent,
+                       float[] magnitudes) {
+        switch (encoding) {
+            case FP16:
+                for (int i = 0; i < delta.length; i++) {
+                    short half = toHalf((float) delta[i]);
+                    out.putShort(half);
+                    sent[i] = toFloat(half);
+                }
+                break;
+            case TOP_K:
+                float threshold = threshold(delta, selected, magnitudes);
+                Arrays.fill(sent, 0);
+                out.putInt(selected);
+                int written = 0;
+                for (int i = 0; i < delta.length && written < selected; i++) {
+                    if (Math.abs((float) delta[i]) >= threshold) {
+                        float value = (float) delta[i];
+                        out.putInt(i);
+                        out.putFloat(value);
+                        sent[i] = value;
+                        written++;
+                    }
+                }
+                break;
+            default:
+                for (int i = 0; i < delta.length; i++) {
+                    out.putDouble(delta[i]);
+                    sent[i] = delta[i];
+                }
+        }
+    }
+
+    static boolean decode(ByteBuffer in, ParameterClient.Encoding encoding, double[] delta) {
+        switch (encoding) {
+            case FP16:
+                for (int i = 0; i < delta.length; i++) {
+                    delta[i] = toFloat(in.getShort());
+                }
+                return true;
+            case TOP_K:
+                Arrays.fill(delta, 0);
+                int selected = in.getInt();
+                if (selected < 0 || selected > delta.length) return false;
+                for (int n = 0; n < selected; n++) {
+                    int index = in.getInt();
+                    float value = in.getFloat();
+                    if (index < 0 || index >= delta.length) return false;
+                    delta[index] = value;
+                }
+                return true;
+            default:
+                for (int i = 0; i < delta.length; i++) {
+                    delta[i] = in.getDouble();
+                }
+                return true;
+        }
+    }
+
+    private static float threshold(double[] delta, int selected, float[] magnitudes) {
+        for (int i = 0; i < delta.length; i++) {
+            magnitudes[i] = Math.abs((float) delta[i]);
+        }
+        Arrays.sort(magnitudes, 0, delta.length);
+        return magnitudes[delta.length - selected];
+    }
+
+    static short toHalf(float value) {
+        int bits = Float.floatToRawIntBits(value);
+        int sign = (bits >>> 16) & 0x8000;
+        int rounded = (bits & 0x7fffffff) + 0x1000;
+
+        if (rounded >= 0x47800000) {
+            if ((bits & 0x7fffffff) >= 0x47800000) {
+                if (rounded < 0x7f800000) {
+                    return (short) (sign | 0x7c00);
+                }
+                return (short) (sign | 0x7c00 | ((bits & 0x007fffff) >>> 13));
+            }
+            return (short) (sign | 0x7bff);
+        }
+        if (rounded >= 0x38800000) {
+            return (short) (sign | ((rounded - 0x38000000) >>> 13));
+        }
+        if (rounded < 0x33000000) {
+            return (short) sign;
+        }
+        int exponent = (bits & 0x7fffffff) >>> 23;
+        return (short) (sign | ((((bits & 0x7fffff) | 0x800000) + (0x800000 >>> (exponent - 102))) >>> (126 - exponent)));
+    }
+
+    static float toFloat(short half) {
+        int mantissa = half & 0x03ff;
+        int exponent = half & 0x7c00;
+        if (exponent == 0x7c00) {
+            exponent = 0x3fc00;
+        } else if (exponent != 0) {
+            exponent += 0x1c000;
+        } else if (mantissa != 0) {
+            exponent = 0x1c400;
+            do {
+                mantissa <<= 1;
+                exponent -= 0x400;
+            } while ((mantissa & 0x400) == 0);
+            mantissa &= 0x3ff;
+        }
+        return Float.intBitsToFloat((half & 0x8000) << 16 | (exponent | mantissa) << 13);
+    }
+}
@@ -0,0 +1,248 @@
+package com.demo.ai;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.Iterator;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class ParameterServer implements AutoCloseable {
+    private final NeuralNetwork network;
+    private final double[] weights;
+    private final double[] delta;
+    private final int maxStaleness;
+    private final Selector selector;
+    private final ServerSocketChannel server;
+    private final Thread thread;
+    private volatile boolean running = true;
+
+    private long version;
+    private final AtomicLong applied = new AtomicLong();
+    private final AtomicLong stale = new AtomicLong();
+    private final AtomicLong pulls = new AtomicLong();
+    private final AtomicLong bytesIn = new AtomicLong();
+    private final AtomicLong bytesOut = new AtomicLong();
+
+    private class Connection {
+        final SocketChannel channel;
+        ByteBuffer in = ByteBuffer.allocate(64 << 10);
+        final ByteBuffer out = ByteBuffer.allocate(ParameterProtocol.weightsFrameBytes(weights.length));
+
+        Connection(SocketChannel channel) {
+            this.channel = channel;
+            out.flip();
+        }
+    }
+
+    public ParameterServer(NeuralNetwork network, String host, int port, int maxStaleness) {
+        this.network = network.copy();
+        this.weights = new double[network.getParameterCount()];
+        this.delta = new double[weights.length];
+        this.maxStaleness = maxStaleness;
+        network.getParameters(weights);
+        try {
+            selector = Selector.open();
+            server = ServerSocketChannel.open();
+            server.bind(new InetSocketAddress(host, port));
+            server.configureBlocking(false);
+            server.register(selector, SelectionKey.OP_ACCEPT);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        thread = new Thread(this::serve, "parameter-server");
+        thread.setDaemon(true);
+    }
+
+    public ParameterServer start() {
+        thread.start();
+        return this;
+    }
+
+    public int getPort() {
+        return server.socket().getLocalPort();
+    }
+
+    public synchronized long getVersion() {
+        return version;
+    }
+
+    public long getApplied() { return applied.get(); }
+    public long getStale() { return stale.get(); }
+    public long getPulls() { return pulls.get(); }
+    public long getBytesIn() { return bytesIn.get(); }
+    public long getBytesOut() { return bytesOut.get(); }
+
+    public synchronized NeuralNetwork snapshot() {
+        network.setParameters(weights);
+        return network.copy();
+    }
+
+    private void serve() {
+        try {
+            while (running) {
+                selector.select();
+                Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                while (keys.hasNext()) {
+                    SelectionKey key = keys.next();
+                    keys.remove();
+                    try {
+                        if (key.isAcceptable()) {
+                            accept();
+                        } else {
+                            Connection connection = (Connection) key.attachment();
+                            if (key.isWritable()) {
+                                flush(key, connection);
+                            }
+                            if (key.isValid() && key.isReadable()) {
+                                read(key, connection);
+                            }
+                        }
+                    } catch (IOException e) {
+                        key.cancel();
+                        key.channel().close();
+                    }
+                }
+            }
+        } catch (IOException e) {
+            e.printStackTrace();
+        } finally {
+            shutdown();
+        }
+    }
+
+    private void shutdown() {
+        try {
+            for (SelectionKey key : selector.keys()) {
+                key.channel().close();
+            }
+            selector.close();
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    private void accept() throws IOException {
+        SocketChannel channel = server.accept();
+        if (channel == null) return;
+        channel.configureBlocking(false);
+        channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+        channel.register(selector, SelectionKey.OP_READ, new Connection(channel));
+    }
+
+    private void read(SelectionKey key, Connection connection) throws IOException {
+        int n = connection.channel.read(connection.in);
+        if (n < 0) {
+            throw new IOException("peer closed");
+        }
+        bytesIn.addAndGet(n);
+        process(key, connection);
+    }
+
+    private void process(SelectionKey key, Connection connection) throws IOException {
+        ByteBuffer in = connection.in;
+        in.flip();
+        while (!connection.out.hasRemaining() && in.remaining() >= Integer.BYTES) {
+            int length = in.getInt(in.position());
+            if (length <= 0 || length > ParameterProtocol.MAX_FRAME_BYTES) {
+                throw new IOException("bad frame length " + length);
+            }
+            if (in.remaining() < Integer.BYTES + length) {
+                if (Integer.BYTES + length > in.capacity()) {
+                    ByteBuffer larger = ByteBuffer.allocate(Integer.BYTES + length);
+                    larger.put(in);
+                    connection.in = larger;
+                    return;
+                }
+                break;
+            }
+            int limit = in.limit();
+            int end = in.position() + Integer.BYTES + length;
+            in.position(in.position() + Integer.BYTES).limit(end);
+            try {
+                handle(in.get(), in, connection.out);
+            } catch (BufferUnderflowException e) {
+                throw new IOException("truncated frame", e);
+            }
+            in.limit(limit).position(end);
+            flush(key, connection);
+        }
+        in.compact();
+    }
+
+    private void handle(byte type, ByteBuffer in, ByteBuffer out) throws IOException {
+        out.clear();
+        switch (type) {
+            case ParameterProtocol.PULL:
+                pulls.incrementAndGet();
+                reply(out, ParameterProtocol.PULLED);
+                break;
+            case ParameterProtocol.PUSH:
+                reply(out, applyPush(in));
+                break;
+            default:
+                throw new IOException("unknown message type " + type);
+        }
+        out.flip();
+    }
+
+    private synchronized void reply(ByteBuffer out, byte status) {
+        ParameterProtocol.writeWeights(out, version, status, weights);
+    }
+
+    private byte applyPush(ByteBuffer in) throws IOException {
+        long base = in.getLong();
+        byte encoding = in.get();
+        int count = in.getInt();
+        ParameterClient.Encoding[] encodings = ParameterClient.Encoding.values();
+        if (count != weights.length || encoding < 0 || encoding >= encodings.length) {
+            throw new IOException("push does not match " + weights.length + " parameters");
+        }
+        if (!ParameterProtocol.decode(in, encodings[encoding], delta)) {
+            throw new IOException("corrupt push");
+        }
+
+        synchronized (this) {
+            long staleness = version - base;
+            if (staleness < 0 || staleness > maxStaleness) {
+                stale.incrementAndGet();
+                return ParameterProtocol.STALE;
+            }
+            double scale = 1.0 / (1 + staleness);
+            for (int i = 0; i < weights.length; i++) {
+                weights[i] += scale * delta[i];
+            }
+            version++;
+        }
+        applied.incrementAndGet();
+        return ParameterProtocol.APPLIED;
+    }
+
+    private void flush(SelectionKey key, Connection connection) throws IOException {
+        int n = connection.channel.write(connection.out);
+        bytesOut.addAndGet(n);
+        if (connection.out.hasRemaining()) {
+            key.interestOps(SelectionKey.OP_WRITE);
+        } else if (key.interestOps() != SelectionKey.OP_READ) {
+            key.interestOps(SelectionKey.OP_READ);
+            process(key, connection);
+        }
+    }
+
+    @Override
+    public void close() {
+        running = false;
+        selector.wakeup();
+        try {
+            thread.join(2000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,232 @@
+package com.demo.ai;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+public class SharedWeights implements WeightSync {
+    private static final int MAGIC = 0x53485754;
+    private static final int MAGIC_OFFSET = 0;
+    private static final int LAYERS_OFFSET = 4;
+    private static final int LEARNING_RATE_OFFSET = 8;
+    private static final int VERSION_OFFSET = 16;
+    private static final int SIZES_OFFSET = 24;
+    private static final long STALL_NANOS = 50_000_000L;
+    private static final VarHandle LONGS = MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.nativeOrder());
+
+    private final FileChannel channel;
+    private final MappedByteBuffer buffer;
+    private final DoubleBuffer parameters;
+    private final int[] layerSizes;
+    private final double[] scratch;
+    private final double[] base;
+    private long seen = -1;
+    private long retries;
+
+    private SharedWeights(FileChannel channel, MappedByteBuffer buffer, int[] layerSizes, int count) {
+        this.channel = channel;
+        this.buffer = buffer;
+        this.layerSizes = layerSizes;
+        this.scratch = new double[count];
+        this.base = new double[count];
+        buffer.position(parametersOffset(layerSizes.length));
+        this.parameters = buffer.slice().order(ByteOrder.nativeOrder()).asDoubleBuffer();
+        buffer.position(0);
+    }
+
+    public static SharedWeights open(File file, NeuralNetwork template) {
+        int[] sizes = template.getLayerSizes();
+        int count = template.getParameterCount();
+        long length = parametersOffset(sizes.length) + (long) count * Double.BYTES;
+        try {
+            FileChannel channel = FileChannel.open(file.toPath(),
+                    StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            SharedWeights shared = null;
+            synchronized (SharedWeights.class) {
+                FileLock lock = channel.lock();
+                try {
+                    boolean fresh = channel.size() == 0;
+                    if (fresh || channel.size() == length) {
+                        MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, length);
+                        buffer.order(ByteOrder.nativeOrder());
+                        shared = new SharedWeights(channel, buffer, sizes, count);
+                        if (fresh) {
+                            shared.initialize(template);
+                        } else if (shared.matches()) {
+                            shared.recover();
+                        } else {
+                            shared = null;
+                        }
+                    }
+                } finally {
+                    lock.release();
+                }
+            }
+            if (shared == null) {
+                channel.close();
+                throw new IllegalArgumentException(file + " does not match layers " + Arrays.toString(sizes));
+            }
+            return shared;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static int parametersOffset(int layers) {
+        return (SIZES_OFFSET + layers * Integer.BYTES + 7) & ~7;
+    }
+
+    private void initialize(NeuralNetwork template) {
+        buffer.putInt(LAYERS_OFFSET, layerSizes.length);
+        buffer.putDouble(LEARNING_RATE_OFFSET, template.getLearningRate());
+        for (int l = 0; l < layerSizes.length; l++) {
+            buffer.putInt(SIZES_OFFSET + l * Integer.BYTES, layerSizes[l]);
+        }
+        template.getParameters(scratch);
+        parameters.put(0, scratch);
+        LONGS.setRelease(buffer, VERSION_OFFSET, 0L);
+        buffer.putInt(MAGIC_OFFSET, MAGIC);
+        buffer.force();
+    }
+
+    private boolean matches() {
+        int layers = buffer.getInt(LAYERS_OFFSET);
+        boolean matches = buffer.getInt(MAGIC_OFFSET) == MAGIC && layers == layerSizes.length;
+        for (int l = 0; matches && l < layers; l++) {
+            matches = buffer.getInt(SIZES_OFFSET + l * Integer.BYTES) == layerSizes[l];
+        }
+        return matches;
+    }
+
+    private void recover() {
+        long version = (long) LONGS.getVolatile(buffer, VERSION_OFFSET);
+        if ((version & 1) != 0) {
+            LONGS.setRelease(buffer, VERSION_OFFSET, version + 1);
+        }
+    }
+
+    public long getVersion() {
+        return (long) LONGS.getAcquire(buffer, VERSION_OFFSET);
+    }
+
+    public double getLearningRate() {
+        return buffer.getDouble(LEARNING_RATE_OFFSET);
+    }
+
+    public long getRetries() {
+        return retries;
+    }
+
+    public long read(double[] out) {
+        boolean stalled = false;
+        long stalledSince = 0;
+        while (true) {
+            long before = (long) LONGS.getAcquire(buffer, VERSION_OFFSET);
+            if ((before & 1) != 0) {
+                retries++;
+                long now = System.nanoTime();
+                if (!stalled) {
+                    stalled = true;
+                    stalledSince = now;
+                } else if (now - stalledSince > STALL_NANOS) {
+                    recoverAbandoned();
+                    stalled = false;
+                }
+                Thread.onSpinWait();
+                continue;
+            }
+            stalled = false;
+            parameters.get(0, out, 0, scratch.length);
+            VarHandle.loadLoadFence();
+            if ((long) LONGS.getOpaque(buffer, VERSION_OFFSET) == before) {
+                return before;
+            }
+            retries++;
+        }
+    }
+
+    private void recoverAbandoned() {
+        synchronized (SharedWeights.class) {
+            try {
+                FileLock lock = channel.tryLock();
+                if (lock == null) {
+                    return;
+                }
+                try {
+                    recover();
+                } finally {
+                    lock.release();
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    @Override
+    public boolean refresh(NeuralNetwork network) {
+        if (getVersion() == seen) {
+            return false;
+        }
+        seen = read(scratch);
+        network.setParameters(scratch);
+        return true;
+    }
+
+    @Override
+    public long push(NeuralNetwork network) {
+        if (seen < 0) {
+            throw new IllegalStateException("pull the shared weights before pushing");
+        }
+        network.getParameters(scratch);
+        synchronized (SharedWeights.class) {
+            try {
+                FileLock lock = channel.lock();
+                try {
+                    long version = (long) LONGS.getVolatile(buffer, VERSION_OFFSET);
+                    LONGS.setVolatile(buffer, VERSION_OFFSET, version + 1);
+                    VarHandle.storeStoreFence();
+                    for (int i = 0; i < scratch.length; i++) {
+                        double merged = parameters.get(i) + scratch[i] - base[i];
+                        parameters.put(i, merged);
+                        scratch[i] = merged;
+                    }
+                    seen = version + 2;
+                    LONGS.setRelease(buffer, VERSION_OFFSET, seen);
+                } finally {
+                    lock.release();
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        System.arraycopy(scratch, 0, base, 0, scratch.length);
+        network.setParameters(scratch);
+        return seen;
+    }
+
+    @Override
+    public void pull(NeuralNetwork network) {
+        seen = read(scratch);
+        System.arraycopy(scratch, 0, base, 0, scratch.length);
+        network.setParameters(scratch);
+    }
+
+    @Override
+    public void close() {
+        try {
+            channel.close();
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+}
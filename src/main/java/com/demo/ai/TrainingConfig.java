@@ -0,0 +1,54 @@
+package com.demo.ai;
+
+public class TrainingConfig {
+    public double epsilon = 0.3;
+    public double epsilonDecay = 0.995;
+    public double epsilonMin = 0.05;
+    public double gamma = 0.95;
+    public int hiddenSize = 64;
+    public int hiddenLayers = 1;
+    public double learningRate = 0.01;
+    public int decisionInterval = 4;
+    public int historyLength = 4;
+    public int actionHistory = 2;
+
+    public int inputSize(int actionCount) {
+        return FeaturePipeline.inputSize(historyLength, actionHistory, actionCount);
+    }
+
+    public NeuralNetwork newNetwork(int actionCount) {
+        return newNetwork(inputSize(actionCount), actionCount);
+    }
+
+    public NeuralNetwork newNetwork(int inputSize, int outputSize) {
+        int[] layerSizes = new int[hiddenLayers + 2];
+        layerSizes[0] = inputSize;
+        for (int l = 1; l <= hiddenLayers; l++) {
+            layerSizes[l] = hiddenSize;
+        }
+        layerSizes[hiddenLayers + 1] = outputSize;
+        return new NeuralNetwork(layerSizes, learningRate);
+    }
+
+    public TrainingConfig copy() {
+        TrainingConfig copy = new TrainingConfig();
+        copy.epsilon = epsilon;
+        copy.epsilonDecay = epsilonDecay;
+        copy.epsilonMin = epsilonMin;
+        copy.gamma = gamma;
+        copy.hiddenSize = hiddenSize;
+        copy.hiddenLayers = hiddenLayers;
+        copy.learningRate = learningRate;
+        copy.decisionInterval = decisionInterval;
+        copy.historyLength = historyLength;
+        copy.actionHistory = actionHistory;
+        return copy;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("eps=%.3f decay=%.4f min=%.3f gamma=%.3f hidden=%dx%d lr=%.4f k=%d history=%d actions=%d",
+                epsilon, epsilonDecay, epsilonMin, gamma, hiddenLayers, hiddenSize, learningRate, decisionInterval,
+                historyLength, actionHistory);
+    }
+}
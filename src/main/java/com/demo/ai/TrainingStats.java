@@ -0,0 +1,67 @@
+package com.demo.ai;
+
+public class TrainingStats {
+    public final int[] actionCounts;
+    public int ticks;
+    public int decisions;
+    public double reward;
+    public double sumMaxQ;
+    public int maxQCount;
+    public double sumTdError;
+    public double sumAbsTdError;
+    public double maxAbsTdError;
+    public int tdCount;
+
+    public TrainingStats(int actionCount) {
+        actionCounts = new int[actionCount];
+    }
+
+    public void recordDecision(int action, double maxQ) {
+        decisions++;
+        actionCounts[action]++;
+        sumMaxQ += maxQ;
+        maxQCount++;
+    }
+
+    public void recordTdError(double tdError) {
+        double abs = Math.abs(tdError);
+        sumTdError += tdError;
+        sumAbsTdError += abs;
+        if (abs > maxAbsTdError) maxAbsTdError = abs;
+        tdCount++;
+    }
+
+    public void addTdErrors(double sum, double sumAbs, double maxAbs, long count) {
+        sumTdError += sum;
+        sumAbsTdError += sumAbs;
+        if (maxAbs > maxAbsTdError) maxAbsTdError = maxAbs;
+        tdCount += count;
+    }
+
+    public double getMeanMaxQ() {
+        return maxQCount == 0 ? 0 : sumMaxQ / maxQCount;
+    }
+
+    public double getMeanTdError() {
+        return tdCount == 0 ? 0 : sumTdError / tdCount;
+    }
+
+    public double getMeanAbsTdError() {
+        return tdCount == 0 ? 0 : sumAbsTdError / tdCount;
+    }
+
+    public void reset() {
+        for (int i = 0; i < actionCounts.length; i++) {
+            actionCounts[i] = 0;
+        }
+        ticks = 0;
+        decisions = 0;
+        reward = 0;
+        sumMaxQ = 0;
+        maxQCount = 0;
+        sumTdError = 0;
+        sumAbsTdError = 0;
+        maxAbsTdError = 0;
+        tdCount = 0;
+    }
+}
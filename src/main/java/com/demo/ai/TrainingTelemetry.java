@@ -0,0 +1,259 @@
+package com.demo.ai;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.text.SimpleDateFormat;
+import java.util.ArrayDeque;
+import java.util.Date;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+public class TrainingTelemetry implements AutoCloseable {
+    public static final int ROUND = 0;
+    public static final int WINDOW = 1;
+
+    private static final String[] KIND_NAMES = { "round", "window" };
+
+    private static final int INDEX = 0;
+    private static final int TIME = 1;
+    private static final int WON = 2;
+    private static final int EPSILON = 3;
+    private static final int REWARD = 4;
+    private static final int TICKS = 5;
+    private static final int DECISIONS = 6;
+    private static final int MEAN_MAX_Q = 7;
+    private static final int MEAN_TD = 8;
+    private static final int MEAN_ABS_TD = 9;
+    private static final int MAX_ABS_TD = 10;
+    private static final int FRAME_LEVEL = 11;
+    private static final int FRAME_MEAN = 12;
+    private static final int FRAME_MAX = 13;
+    private static final int FRAME_LEVEL_CHANGES = 14;
+    private static final int ACTIONS = 15;
+
+    private final int actionCount;
+    private final int stride;
+    private final int mask;
+    private final int[] kinds;
+    private final double[] slots;
+
+    private final AtomicLong head = new AtomicLong();
+    private final AtomicLong tail = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private long cachedHead;
+
+    private int frameLevel;
+    private double frameMeanMillis;
+    private double frameMaxMillis;
+    private long frameLevelChanges;
+
+    private final File directory;
+    private final String filePrefix;
+    private final long maxFileBytes;
+    private final int maxFiles;
+    private final ArrayDeque<File> files = new ArrayDeque<>();
+    private final StringBuilder line = new StringBuilder(256);
+    private byte[] bytes = new byte[256];
+    private BufferedOutputStream writer;
+    private long fileBytes;
+    private int fileSequence;
+
+    private final Thread writerThread;
+    private volatile boolean running = true;
+
+    public TrainingTelemetry(File directory, int actionCount, int capacity, long maxFileBytes, int maxFiles) {
+        if (Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("capacity must be a power of two: " + capacity);
+        }
+        this.directory = directory;
+        this.actionCount = actionCount;
+        this.stride = ACTIONS + actionCount;
+        this.mask = capacity - 1;
+        this.kinds = new int[capacity];
+        this.slots = new double[capacity * stride];
+        this.maxFileBytes = maxFileBytes;
+        this.maxFiles = maxFiles;
+        this.filePrefix = "training-" + new SimpleDateFormat("yyyyMMdd-HHmmss").format(new Date());
+
+        writerThread = new Thread(this::writeLoop, "telemetry-writer");
+        writerThread.setDaemon(true);
+        writerThread.start();
+    }
+
+    public static TrainingTelemetry open(String directory, int actionCount) {
+        TrainingTelemetry telemetry = new TrainingTelemetry(new File(directory), actionCount, 1024, 8L << 20, 10);
+        Runtime.getRuntime().addShutdownHook(new Thread(telemetry::close, "telemetry-shutdown"));
+        return telemetry;
+    }
+
+    public void updateFrameMetrics(int level, double meanMillis, double maxMillis, long levelChanges) {
+        frameLevel = level;
+        frameMeanMillis = meanMillis;
+        frameMaxMillis = maxMillis;
+        frameLevelChanges = levelChanges;
+    }
+
+    public void record(int kind, long index, boolean won, double epsilon, TrainingStats stats) {
+        long t = tail.get();
+        if (t - cachedHead > mask) {
+            cachedHead = head.get();
+            if (t - cachedHead > mask) {
+                dropped.incrementAndGet();
+                return;
+            }
+        }
+
+        int slot = (int) (t & mask);
+        int base = slot * stride;
+        kinds[slot] = kind;
+        slots[base + INDEX] = index;
+        slots[base + TIME] = System.currentTimeMillis();
+        slots[base + WON] = won ? 1 : 0;
+        slots[base + EPSILON] = epsilon;
+        slots[base + REWARD] = stats.reward;
+        slots[base + TICKS] = stats.ticks;
+        slots[base + DECISIONS] = stats.decisions;
+        slots[base + MEAN_MAX_Q] = stats.getMeanMaxQ();
+        slots[base + MEAN_TD] = stats.getMeanTdError();
+        slots[base + MEAN_ABS_TD] = stats.getMeanAbsTdError();
+        slots[base + MAX_ABS_TD] = stats.maxAbsTdError;
+        slots[base + FRAME_LEVEL] = frameLevel;
+        slots[base + FRAME_MEAN] = frameMeanMillis;
+        slots[base + FRAME_MAX] = frameMaxMillis;
+        slots[base + FRAME_LEVEL_CHANGES] = frameLevelChanges;
+        for (int i = 0; i < actionCount; i++) {
+            slots[base + ACTIONS + i] = stats.actionCounts[i];
+        }
+        tail.lazySet(t + 1);
+    }
+
+    public long getDropped() {
+        return dropped.get();
+    }
+
+    private void writeLoop() {
+        while (running) {
+            if (!drain()) {
+                flush();
+                LockSupport.parkNanos(50_000_000L);
+            }
+        }
+        drain();
+        closeWriter();
+    }
+
+    private boolean drain() {
+        long h = head.get();
+        long t = tail.get();
+        if (h == t) return false;
+
+        while (h < t) {
+            int slot = (int) (h & mask);
+            formatLine(kinds[slot], slot * stride);
+            h++;
+            head.lazySet(h);
+            write();
+        }
+        return true;
+    }
+
+    private void formatLine(int kind, int base) {
+        line.setLength(0);
+        line.append(KIND_NAMES[kind]).append(',')
+            .append((long) slots[base + INDEX]).append(',')
+            .append((long) slots[base + TIME]).append(',')
+            .append((int) slots[base + WON]).append(',')
+            .append(slots[base + EPSILON]).append(',')
+            .append(slots[base + REWARD]).append(',')
+            .append((long) slots[base + TICKS]).append(',')
+            .append((long) slots[base + DECISIONS]).append(',')
+            .append(slots[base + MEAN_MAX_Q]).append(',')
+            .append(slots[base + MEAN_TD]).append(',')
+            .append(slots[base + MEAN_ABS_TD]).append(',')
+            .append(slots[base + MAX_ABS_TD]).append(',')
+            .append((int) slots[base + FRAME_LEVEL]).append(',')
+            .append(slots[base + FRAME_MEAN]).append(',')
+            .append(slots[base + FRAME_MAX]).append(',')
+            .append((long) slots[base + FRAME_LEVEL_CHANGES]);
+        for (int i = 0; i < actionCount; i++) {
+            line.append(',').append((long) slots[base + ACTIONS + i]);
+        }
+        line.append(',').append(dropped.get()).append('\n');
+    }
+
+    private void write() {
+        try {
+            if (writer == null || fileBytes >= maxFileBytes) {
+                roll();
+            }
+            int length = line.length();
+            if (bytes.length < length) {
+                bytes = new byte[line.capacity()];
+            }
+            for (int i = 0; i < length; i++) {
+                bytes[i] = (byte) line.charAt(i);
+            }
+            writer.write(bytes, 0, length);
+            fileBytes += length;
+        } catch (IOException e) {
+            e.printStackTrace();
+            writer = null;
+        }
+    }
+
+    private void roll() throws IOException {
+        closeWriter();
+        directory.mkdirs();
+
+        File file = new File(directory, filePrefix + "-" + fileSequence++ + ".csv");
+        writer = new BufferedOutputStream(new FileOutputStream(file));
+        files.addLast(file);
+        while (files.size() > maxFiles) {
+            files.removeFirst().delete();
+        }
+
+        StringBuilder header = new StringBuilder(
+                "kind,index,time_ms,won,epsilon,reward,ticks,decisions,mean_max_q,mean_td_error,mean_abs_td_error,max_abs_td_error,"
+                + "governor_level,frame_mean_ms,frame_max_ms,governor_changes");
+        for (int i = 0; i < actionCount; i++) {
+            header.append(",action_").append(i);
+        }
+        header.append(",dropped\n");
+        writer.write(header.toString().getBytes(StandardCharsets.US_ASCII));
+        fileBytes = header.length();
+    }
+
+    private void flush() {
+        if (writer == null) return;
+        try {
+            writer.flush();
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    private void closeWriter() {
+        if (writer == null) return;
+        try {
+            writer.close();
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+        writer = null;
+    }
+
+    @Override
+    public void close() {
+        if (!running) return;
+        running = false;
+        LockSupport.unpark(writerThread);
+        try {
+            writerThread.join(2000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package com.demo.ai;
+
+public class TransitionBuffer {
+    private final int inputSize;
+    private final int capacity;
+    private final double[] states;
+    private final double[] nextStates;
+    private final double[] rewards;
+    private final int[] actions;
+    private final boolean[] dones;
+    private int size = 0;
+
+    public TransitionBuffer(int inputSize, int capacity) {
+        this.inputSize = inputSize;
+        this.capacity = capacity;
+        states = new double[capacity * inputSize];
+        nextStates = new double[capacity * inputSize];
+        rewards = new double[capacity];
+        actions = new int[capacity];
+        dones = new boolean[capacity];
+    }
+
+    public boolean add(double[] state, int action, double reward, double[] nextState, boolean done) {
+        if (size == capacity) return false;
+
+        System.arraycopy(state, 0, states, size * inputSize, inputSize);
+        System.arraycopy(nextState, 0, nextStates, size * inputSize, inputSize);
+        rewards[size] = reward;
+        actions[size] = action;
+        dones[size] = done;
+        size++;
+        return true;
+    }
+
+    public void getState(int index, double[] out) {
+        System.arraycopy(states, index * inputSize, out, 0, inputSize);
+    }
+
+    public void getNextState(int index, double[] out) {
+        System.arraycopy(nextStates, index * inputSize, out, 0, inputSize);
+    }
+
+    public int getAction(int index) {
+        return actions[index];
+    }
+
+    public double getReward(int index) {
+        return rewards[index];
+    }
+
+    public boolean isDone(int index) {
+        return dones[index];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public int getInputSize() {
+        return inputSize;
+    }
+
+    public void clear() {
+        size = 0;
+    }
+}
@@ -0,0 +1,139 @@
+package com.demo.ai;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+public class TransitionDataset {
+    private final int inputSize;
+    private final int nextStatesOffset;
+    private final int rewardsOffset;
+    private final int actionsOffset;
+    private final int donesOffset;
+    private final ByteBuffer[] blocks;
+    private final int[] blockSizes;
+    private final long size;
+
+    private TransitionDataset(int inputSize, int blockRows, List<ByteBuffer> blocks, List<Integer> blockSizes, long size) {
+        this.inputSize = inputSize;
+        this.nextStatesOffset = TransitionRecorder.nextStatesOffset(inputSize, blockRows);
+        this.rewardsOffset = TransitionRecorder.rewardsOffset(inputSize, blockRows);
+        this.actionsOffset = TransitionRecorder.actionsOffset(inputSize, blockRows);
+        this.donesOffset = TransitionRecorder.donesOffset(inputSize, blockRows);
+        this.blocks = blocks.toArray(new ByteBuffer[0]);
+        this.blockSizes = new int[this.blocks.length];
+        for (int b = 0; b < this.blocks.length; b++) {
+            this.blockSizes[b] = blockSizes.get(b);
+        }
+        this.size = size;
+    }
+
+    public static TransitionDataset open(File path) {
+        File[] files = path.isDirectory() ? path.listFiles((dir, name) -> name.endsWith(TransitionRecorder.SUFFIX)) : new File[] { path };
+        if (files == null || files.length == 0) {
+            throw new IllegalArgumentException("no transition files in " + path);
+        }
+        Arrays.sort(files);
+
+        int inputSize = -1;
+        int blockRows = -1;
+        List<ByteBuffer> blocks = new ArrayList<>();
+        List<Integer> blockSizes = new ArrayList<>();
+        long size = 0;
+        ByteBuffer header = ByteBuffer.allocate(TransitionRecorder.HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+
+        for (File file : files) {
+            try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+                header.clear();
+                while (header.hasRemaining()) {
+                    if (channel.read(header) < 0) break;
+                }
+                header.flip();
+                if (header.remaining() < TransitionRecorder.HEADER_BYTES || header.getInt() != TransitionRecorder.MAGIC
+                        || header.getInt() != TransitionRecorder.FORMAT_VERSION) {
+                    throw new IllegalArgumentException(file + " is not a transition file");
+                }
+                int fileInputSize = header.getInt();
+                int fileBlockRows = header.getInt();
+                if (inputSize < 0) {
+                    inputSize = fileInputSize;
+                    blockRows = fileBlockRows;
+                } else if (fileInputSize != inputSize || fileBlockRows != blockRows) {
+                    throw new IllegalArgumentException(file + " has " + fileInputSize + " inputs in blocks of " + fileBlockRows
+                            + ", expected " + inputSize + " in blocks of " + blockRows);
+                }
+
+                int blockBytes = TransitionRecorder.blockBytes(inputSize, blockRows);
+                long count = (channel.size() - TransitionRecorder.HEADER_BYTES) / blockBytes;
+                int blocksPerMap = Math.max(1, Integer.MAX_VALUE / blockBytes);
+                for (long first = 0; first < count; first += blocksPerMap) {
+                    int mapped = (int) Math.min(blocksPerMap, count - first);
+                    MappedByteBuffer map = channel.map(FileChannel.MapMode.READ_ONLY,
+                            TransitionRecorder.HEADER_BYTES + first * blockBytes, (long) mapped * blockBytes);
+                    map.order(ByteOrder.LITTLE_ENDIAN);
+                    for (int b = 0; b < mapped; b++) {
+                        ByteBuffer block = map.slice(b * blockBytes, blockBytes).order(ByteOrder.LITTLE_ENDIAN);
+                        int rows = block.getInt(0);
+                        if (rows <= 0 || rows > blockRows) continue;
+                        blocks.add(block);
+                        blockSizes.add(rows);
+                        size += rows;
+                    }
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        return new TransitionDataset(inputSize, blockRows, blocks, blockSizes, size);
+    }
+
+    public long size() {
+        return size;
+    }
+
+    public int getInputSize() {
+        return inputSize;
+    }
+
+    public int getBlockCount() {
+        return blocks.length;
+    }
+
+    public int getBlockSize(int block) {
+        return blockSizes[block];
+    }
+
+    public void getState(int block, int row, double[] out) {
+        read(blocks[block], TransitionRecorder.statesOffset() + row * inputSize * Float.BYTES, out);
+    }
+
+    public void getNextState(int block, int row, double[] out) {
+        read(blocks[block], nextStatesOffset + row * inputSize * Float.BYTES, out);
+    }
+
+    public double getReward(int block, int row) {
+        return blocks[block].getFloat(rewardsOffset + row * Float.BYTES);
+    }
+
+    public int getAction(int block, int row) {
+        return blocks[block].get(actionsOffset + row);
+    }
+
+    public boolean isDone(int block, int row) {
+        return blocks[block].get(donesOffset + row) != 0;
+    }
+
+    private void read(ByteBuffer block, int offset, double[] out) {
+        for (int i = 0; i < inputSize; i++) {
+            out[i] = block.getFloat(offset + i * Float.BYTES);
+        }
+    }
+}
@@ -0,0 +1,230 @@
+package com.demo.ai;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+public class TransitionRecorder implements AutoCloseable {
+    static final int MAGIC = 0x54524e53;
+    static final int FORMAT_VERSION = 1;
+    static final int HEADER_BYTES = 16;
+    static final String SUFFIX = ".trn";
+
+    private final int inputSize;
+    private final int mask;
+    private final double[] states;
+    private final double[] nextStates;
+    private final double[] rewards;
+    private final int[] actions;
+    private final boolean[] dones;
+    private final AtomicLong head = new AtomicLong();
+    private final AtomicLong tail = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong written = new AtomicLong();
+    private long cachedHead;
+
+    private final File directory;
+    private final String filePrefix;
+    private final int blockRows;
+    private final int blocksPerFile;
+    private final ByteBuffer block;
+    private final ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+    private FileChannel channel;
+    private int blockFill;
+    private int fileBlocks;
+    private int fileSequence;
+
+    private final Thread writerThread;
+    private volatile boolean running = true;
+
+    public TransitionRecorder(File directory, int inputSize, int capacity, int blockRows, int blocksPerFile) {
+        if (Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("capacity must be a power of two: " + capacity);
+        }
+        this.directory = directory;
+        this.inputSize = inputSize;
+        this.mask = capacity - 1;
+        this.blockRows = blockRows;
+        this.blocksPerFile = blocksPerFile;
+        this.filePrefix = "transitions-" + new SimpleDateFormat("yyyyMMdd-HHmmss").format(new Date());
+
+        states = new double[capacity * inputSize];
+        nextStates = new double[capacity * inputSize];
+        rewards = new double[capacity];
+        actions = new int[capacity];
+        dones = new boolean[capacity];
+        block = ByteBuffer.allocateDirect(blockBytes(inputSize, blockRows)).order(ByteOrder.LITTLE_ENDIAN);
+
+        writerThread = new Thread(this::writeLoop, "transition-writer");
+        writerThread.setDaemon(true);
+        writerThread.start();
+    }
+
+    public static TransitionRecorder open(String directory, int inputSize) {
+        TransitionRecorder recorder = new TransitionRecorder(new File(directory), inputSize, 4096, 4096, 256);
+        Runtime.getRuntime().addShutdownHook(new Thread(recorder::close, "transition-shutdown"));
+        return recorder;
+    }
+
+    static int blockBytes(int inputSize, int blockRows) {
+        int bytes = Integer.BYTES + blockRows * (2 * inputSize * Float.BYTES + Float.BYTES + 2);
+        return (bytes + 7) & ~7;
+    }
+
+    static int statesOffset() {
+        return Integer.BYTES;
+    }
+
+    static int nextStatesOffset(int inputSize, int blockRows) {
+        return statesOffset() + blockRows * inputSize * Float.BYTES;
+    }
+
+    static int rewardsOffset(int inputSize, int blockRows) {
+        return nextStatesOffset(inputSize, blockRows) + blockRows * inputSize * Float.BYTES;
+    }
+
+    static int actionsOffset(int inputSize, int blockRows) {
+        return rewardsOffset(inputSize, blockRows) + blockRows * Float.BYTES;
+    }
+
+    static int donesOffset(int inputSize, int blockRows) {
+        return actionsOffset(inputSize, blockRows) + blockRows;
+    }
+
+    public int getInputSize() {
+        return inputSize;
+    }
+
+    public boolean record(double[] state, int action, double reward, double[] nextState, boolean done) {
+        long t = tail.get();
+        if (t - cachedHead > mask) {
+            cachedHead = head.get();
+            if (t - cachedHead > mask) {
+                dropped.incrementAndGet();
+                return false;
+            }
+        }
+
+        int slot = (int) (t & mask);
+        System.arraycopy(state, 0, states, slot * inputSize, inputSize);
+        System.arraycopy(nextState, 0, nextStates, slot * inputSize, inputSize);
+        rewards[slot] = reward;
+        actions[slot] = action;
+        dones[slot] = done;
+        tail.lazySet(t + 1);
+        return true;
+    }
+
+    public long getDropped() {
+        return dropped.get();
+    }
+
+    public long getWritten() {
+        return written.get();
+    }
+
+    private void writeLoop() {
+        while (running) {
+            if (!drain()) {
+                LockSupport.parkNanos(50_000_000L);
+            }
+        }
+        drain();
+        if (blockFill > 0) {
+            writeBlock();
+        }
+        closeFile();
+    }
+
+    private boolean drain() {
+        long h = head.get();
+        long t = tail.get();
+        if (h == t) return false;
+
+        while (h < t) {
+            append((int) (h & mask));
+            h++;
+            head.lazySet(h);
+        }
+        return true;
+    }
+
+    private void append(int slot) {
+        int row = blockFill;
+        int stateBase = statesOffset() + row * inputSize * Float.BYTES;
+        int nextBase = nextStatesOffset(inputSize, blockRows) + row * inputSize * Float.BYTES;
+        for (int i = 0; i < inputSize; i++) {
+            block.putFloat(stateBase + i * Float.BYTES, (float) states[slot * inputSize + i]);
+            block.putFloat(nextBase + i * Float.BYTES, (float) nextStates[slot * inputSize + i]);
+        }
+        block.putFloat(rewardsOffset(inputSize, blockRows) + row * Float.BYTES, (float) rewards[slot]);
+        block.put(actionsOffset(inputSize, blockRows) + row, (byte) actions[slot]);
+        block.put(donesOffset(inputSize, blockRows) + row, (byte) (dones[slot] ? 1 : 0));
+
+        if (++blockFill == blockRows) {
+            writeBlock();
+        }
+    }
+
+    private void writeBlock() {
+        try {
+            if (channel == null || fileBlocks >= blocksPerFile) {
+                roll();
+            }
+            block.putInt(0, blockFill);
+            block.clear();
+            while (block.hasRemaining()) {
+                channel.write(block);
+            }
+            fileBlocks++;
+            written.addAndGet(blockFill);
+        } catch (IOException e) {
+            e.printStackTrace();
+            closeFile();
+        }
+        blockFill = 0;
+    }
+
+    private void roll() throws IOException {
+        closeFile();
+        directory.mkdirs();
+
+        File file = new File(directory, filePrefix + "-" + fileSequence++ + SUFFIX);
+        channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+        header.clear();
+        header.putInt(MAGIC).putInt(FORMAT_VERSION).putInt(inputSize).putInt(blockRows).flip();
+        while (header.hasRemaining()) {
+            channel.write(header);
+        }
+        fileBlocks = 0;
+    }
+
+    private void closeFile() {
+        if (channel == null) return;
+        try {
+            channel.close();
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+        channel = null;
+    }
+
+    @Override
+    public void close() {
+        if (!running) return;
+        running = false;
+        LockSupport.unpark(writerThread);
+        try {
+            writerThread.join(2000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
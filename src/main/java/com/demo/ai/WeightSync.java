@@ -0,0 +1,12 @@
+package com.demo.ai;
+
+public interface WeightSync extends AutoCloseable {
+    void pull(NeuralNetwork network);
+
+    long push(NeuralNetwork network);
+
+    boolean refresh(NeuralNetwork network);
+
+    @Override
+    void close();
+}
@@ -1,40 +1,145 @@
 package com.demo.entity;
 
-import com.demo.GamePanel;
+import java.io.File;
+
+import com.demo.Arena;
+import com.demo.ai.AsyncLearner;
+import com.demo.ai.CheckpointLog;
+import com.demo.ai.FeaturePipeline;
+import com.demo.ai.InferenceContext;
+import com.demo.ai.LookupTablePolicy;
 import com.demo.ai.NeuralNetwork;
+import com.demo.ai.TrainingConfig;
+import com.demo.ai.TrainingStats;
+import com.demo.ai.TrainingTelemetry;
+import com.demo.ai.TransitionBuffer;
+import com.demo.ai.TransitionRecorder;
+import com.demo.ai.WeightSync;
+import com.demo.jfr.CheckpointEvent;
+import com.demo.jfr.DecisionEvent;
+import com.demo.jfr.LearnStepEvent;
+import com.demo.jfr.RoundEndEvent;
 
 public class AIPlayer extends Fighter {
     private NeuralNetwork brain;
-    private double epsilon = 0.3;
-    private final double EPSILON_DECAY = 0.995;
-    private final double EPSILON_MIN = 0.05;
-    private final double GAMMA = 0.95;
+    private final InferenceContext inference;
+    private final TrainingConfig config;
+    private double epsilon;
+    private final int ACTION_COUNT = 6;
+    private final int TELEMETRY_WINDOW_TICKS = 600;
     
-    private Player opponent;
+    private Fighter opponent;
+    private boolean leftSide = false;
     
     private int lastHealth;
     private int lastOpponentHealth;
     private double lastDistance;
-    private double totalReward;
     
     private int wins = 0;
     private int losses = 0;
     private int rounds = 0;
 
-    public AIPlayer(GamePanel gp, Player opponent) {
-        super(gp);
+    private String checkpointFile;
+    private CheckpointLog checkpointLog;
+    private TrainingTelemetry telemetry;
+    private TransitionRecorder recorder;
+    private final TrainingStats roundStats = new TrainingStats(ACTION_COUNT);
+    private final TrainingStats windowStats = new TrainingStats(ACTION_COUNT);
+    private long totalTicks = 0;
+
+    private int decisionInterval;
+    private int decisionTicks = 0;
+    private int currentAction = 0;
+    private double decisionReward = 0;
+    private boolean terminalLearned = false;
+
+    private final FeaturePipeline features;
+    private final double[] decisionState;
+    private final double[] nextState;
+    private boolean hasDecisionState = false;
+
+    private boolean learning = true;
+    private LookupTablePolicy distilledPolicy;
+    private AsyncLearner learner;
+    private final TrainingStats learnerStats = new TrainingStats(ACTION_COUNT);
+    private boolean learningDeferred = false;
+    private TransitionBuffer deferredTransitions;
+    private final RoundEndEvent roundEndEvent = new RoundEndEvent();
+    private final DecisionEvent decisionEvent = new DecisionEvent();
+    private final LearnStepEvent learnStepEvent = new LearnStepEvent();
+    private final CheckpointEvent checkpointEvent = new CheckpointEvent();
+    private final double[] deferredState;
+    private final double[] deferredNextState;
+    private WeightSync weightSync;
+    private int syncRounds = 1;
+    private LookaheadPlanner planner;
+    private TransitionBuffer roundTransitions;
+    private double[] idleState;
+    private double[] idleNextState;
+    private NeuralNetwork idleTarget;
+    private int idleSweeps;
+    private int idleSweep;
+    private int idleIndex;
+    private long idleBudgetNanos = 2_000_000L;
+    private long idleSteps;
+    private int deferredIndex;
+    private long deferredBudgetNanos = 1_000_000L;
+    private long deferredDropped;
+
+    public AIPlayer(Arena arena, Fighter opponent) {
+        this(arena, opponent, Difficulty.NORMAL);
+    }
+
+    public AIPlayer(Arena arena, Fighter opponent, Difficulty difficulty) {
+        this(arena, opponent, difficulty, loadBrain());
+        this.checkpointFile = "ai_brain.dat";
+    }
+
+    public AIPlayer(Arena arena, Fighter opponent, Difficulty difficulty, NeuralNetwork brain) {
+        this(arena, opponent, forDifficulty(difficulty), brain);
+    }
+
+    public AIPlayer(Arena arena, Fighter opponent, TrainingConfig config, NeuralNetwork brain) {
+        super(arena);
         this.opponent = opponent;
-        
-        brain = NeuralNetwork.load("ai_brain.dat");
-        if (brain == null) {
-            brain = new NeuralNetwork(10, 64, 6, 0.01);
+        this.config = config;
+        this.epsilon = config.epsilon;
+        this.decisionInterval = config.decisionInterval;
+
+        FeaturePipeline pipeline = new FeaturePipeline(config.historyLength, config.actionHistory, ACTION_COUNT);
+        if (brain.getInputSize() < pipeline.getInputSize()) {
+            brain = brain.withInputSize(pipeline.getInputSize());
+        } else if (brain.getInputSize() > pipeline.getInputSize()) {
+            pipeline = FeaturePipeline.forInputSize(brain.getInputSize(), config.historyLength, ACTION_COUNT);
         }
-        
+        this.brain = brain;
+        this.inference = brain.newContext();
+        this.learning = !brain.isFrozen();
+        this.features = pipeline;
+        this.decisionState = new double[pipeline.getInputSize()];
+        this.nextState = new double[pipeline.getInputSize()];
+        this.deferredState = new double[pipeline.getInputSize()];
+        this.deferredNextState = new double[pipeline.getInputSize()];
+
         setDefaultValues();
         loadSprites();
         initializeTracking();
     }
 
+    private static TrainingConfig forDifficulty(Difficulty difficulty) {
+        TrainingConfig config = new TrainingConfig();
+        config.decisionInterval = difficulty.decisionInterval;
+        return config;
+    }
+
+    private static NeuralNetwork loadBrain() {
+        NeuralNetwork brain = NeuralNetwork.load("ai_brain.dat");
+        if (brain == null) {
+            brain = new TrainingConfig().newNetwork(6);
+        }
+        return brain;
+    }
+
     @Override
     protected String getSpritePath() {
         return "/assets/character/AI";
@@ -42,12 +147,12 @@ public class AIPlayer extends Fighter {
 
     @Override
     protected int getStartX() {
-        return gp.screenWidth - 400;
+        return leftSide ? 100 : arena.screenWidth - 400;
     }
 
     @Override
     protected boolean getDefaultFacingRight() {
-        return false;
+        return leftSide;
     }
 
     @Override
@@ -65,18 +170,209 @@ public class AIPlayer extends Fighter {
         lastDistance = Math.abs(opponentCenterX - myCenterX);
     }
 
+    public void placeOnLeft() {
+        leftSide = true;
+        reset();
+    }
+
+    public void setOpponent(Fighter opponent) {
+        this.opponent = opponent;
+        initializeTracking();
+    }
+
+    public void setDifficulty(Difficulty difficulty) {
+        setDecisionInterval(difficulty.decisionInterval);
+    }
+
+    public void setDecisionInterval(int decisionInterval) {
+        if (decisionInterval < 1) {
+            throw new IllegalArgumentException("decisionInterval must be at least 1: " + decisionInterval);
+        }
+        this.decisionInterval = decisionInterval;
+    }
+
+    public void setLearning(boolean learning) {
+        this.learning = learning && !brain.isFrozen();
+    }
+
+    public void setEpsilon(double epsilon) {
+        this.epsilon = epsilon;
+    }
+
+    public void setSeed(long seed) {
+        inference.setSeed(seed);
+    }
+
+    public void setDistilledPolicy(LookupTablePolicy distilledPolicy) {
+        this.distilledPolicy = distilledPolicy;
+        this.learning = distilledPolicy == null && !brain.isFrozen();
+    }
+
+    public void setPlanner(LookaheadPlanner planner) {
+        this.planner = planner;
+    }
+
+    public void startAsyncLearning() {
+        if (learner == null) {
+            learner = AsyncLearner.start(brain, config.gamma);
+        }
+    }
+
+    public void setIdleTraining(int sweeps, int capacity) {
+        idleSweeps = sweeps;
+        if (sweeps <= 0) {
+            roundTransitions = null;
+            return;
+        }
+        if (roundTransitions == null || roundTransitions.getCapacity() != capacity) {
+            roundTransitions = new TransitionBuffer(decisionState.length, capacity);
+            idleState = new double[decisionState.length];
+            idleNextState = new double[decisionState.length];
+            idleTarget = brain.copy();
+        }
+        idleSweep = sweeps;
+    }
+
+    public void setIdleBudget(long budgetNanos) {
+        this.idleBudgetNanos = budgetNanos;
+    }
+
+    public void setCheckpointFile(String checkpointFile) {
+        this.checkpointFile = checkpointFile;
+    }
+
+    public void setCheckpointLog(CheckpointLog checkpointLog) {
+        this.checkpointLog = checkpointLog;
+    }
+
+    public void setWeightSync(WeightSync weightSync, int syncRounds) {
+        if (weightSync != null && learner != null) {
+            throw new IllegalStateException("weights are synchronised on the game thread, not the async learner");
+        }
+        this.weightSync = weightSync;
+        this.syncRounds = Math.max(1, syncRounds);
+        if (weightSync != null) {
+            weightSync.pull(brain);
+        }
+    }
+
+    public void setLearningDeferred(boolean deferred) {
+        if (learningDeferred == deferred) return;
+        learningDeferred = deferred;
+        if (learner != null) {
+            learner.setPaused(deferred);
+        }
+    }
+
+    public void setDeferredBudget(long budgetNanos) {
+        this.deferredBudgetNanos = budgetNanos;
+    }
+
+    private void learnDeferredTransitions() {
+        if (learningDeferred || deferredTransitions == null || deferredTransitions.size() == 0) return;
+
+        long deadline = System.nanoTime() + deferredBudgetNanos;
+        while (deferredIndex < deferredTransitions.size() && System.nanoTime() < deadline) {
+            int i = deferredIndex++;
+            deferredTransitions.getState(i, deferredState);
+            deferredTransitions.getNextState(i, deferredNextState);
+            LearnStepEvent event = learnStepEvent;
+            event.begin();
+            double tdError = brain.learn(deferredState, deferredTransitions.getAction(i), deferredTransitions.getReward(i),
+                    deferredNextState, config.gamma, deferredTransitions.isDone(i));
+            event.end();
+            if (event.shouldCommit()) {
+                event.tdError = tdError;
+                event.replayed = true;
+                event.commit();
+            }
+            roundStats.recordTdError(tdError);
+            windowStats.recordTdError(tdError);
+        }
+        if (deferredIndex == deferredTransitions.size()) {
+            deferredTransitions.clear();
+            deferredIndex = 0;
+        }
+    }
+
+    public void setTelemetry(TrainingTelemetry telemetry) {
+        this.telemetry = telemetry;
+    }
+
+    public void setTransitionRecorder(TransitionRecorder recorder) {
+        if (recorder != null && recorder.getInputSize() != decisionState.length) {
+            throw new IllegalArgumentException("recorder expects " + recorder.getInputSize() + " inputs, not " + decisionState.length);
+        }
+        this.recorder = recorder;
+    }
+
+    @Override
+    public void update() {
+        super.update();
+        observe();
+        features.commit();
+        learnDeferredTransitions();
+
+        totalTicks++;
+        roundStats.ticks++;
+        windowStats.ticks++;
+        if (windowStats.ticks >= TELEMETRY_WINDOW_TICKS) {
+            if (telemetry != null) {
+                telemetry.record(TrainingTelemetry.WINDOW, totalTicks, false, epsilon, windowStats);
+            }
+            windowStats.reset();
+        }
+    }
+
+    private void decide() {
+        DecisionEvent event = decisionEvent;
+        event.begin();
+
+        double maxQ = 0;
+        if (distilledPolicy != null) {
+            buildState(decisionState);
+            currentAction = distilledPolicy.selectAction(decisionState);
+            roundStats.recordDecision(currentAction, 0);
+            windowStats.recordDecision(currentAction, 0);
+        } else {
+            if (weightSync != null && !learning) {
+                weightSync.refresh(brain);
+            }
+            NeuralNetwork network = learner != null ? learner.acquire() : brain;
+            buildState(decisionState);
+            double[] qValues = planner != null
+                    ? planner.plan(network, this, opponent, features, decisionInterval, config.gamma, lastHealth, lastOpponentHealth, lastDistance)
+                    : network.forward(inference, decisionState);
+            currentAction = inference.selectAction(qValues, epsilon);
+            maxQ = NeuralNetwork.getMax(qValues);
+            roundStats.recordDecision(currentAction, maxQ);
+            windowStats.recordDecision(currentAction, maxQ);
+        }
+        hasDecisionState = true;
+        features.recordAction(currentAction);
+
+        event.end();
+        if (event.shouldCommit()) {
+            event.action = currentAction;
+            event.epsilon = epsilon;
+            event.maxQ = maxQ;
+            event.distilled = distilledPolicy != null;
+            event.commit();
+        }
+    }
+
     @Override
     protected void handleInput() {
         if (!isAttacking) {
             facingRight = opponent.x + opponent.width / 2 > x + width / 2;
         }
         
-        double[] state = getState();
-        double[] qValues = brain.forward(state);
-        int action = brain.selectAction(qValues, epsilon);
+        if (decisionTicks == 0) {
+            decide();
+        }
         
         resetActions();
-        applyAction(action);
+        applyAction(this, currentAction);
     }
 
     @Override
@@ -85,63 +381,135 @@ public class AIPlayer extends Fighter {
 
     @Override
     protected void onUpdateEnd() {
-        double reward = calculateReward();
-        totalReward += reward;
-        double[] nextState = getState();
         boolean done = health <= 0 || opponent.health <= 0;
-        brain.learn(reward, nextState, GAMMA, done);
+        accumulateReward();
+        decisionTicks++;
+        if (decisionTicks >= decisionInterval || done) {
+            finishDecision(done);
+        }
+    }
+
+    private void accumulateReward() {
+        double reward = calculateReward();
+        roundStats.reward += reward;
+        windowStats.reward += reward;
+        decisionReward += reward;
         
         lastHealth = health;
         lastOpponentHealth = opponent.health;
     }
 
-    private double[] getState() {
-        double[] state = new double[10];
-        
-        int myCenterX = x + width / 2;
-        int opponentCenterX = opponent.x + opponent.width / 2;
-        
-        double dx = (opponentCenterX - myCenterX) / 800.0;
-        double dy = (opponent.y - y) / 400.0;
-        double distance = Math.abs(opponentCenterX - myCenterX) / 400.0;
-        
-        state[0] = dx;
-        state[1] = dy;
-        state[2] = health / 100.0;
-        state[3] = opponent.health / 100.0;
-        state[4] = onGround ? 1.0 : -1.0;
-        state[5] = isAttacking ? 1.0 : -1.0;
-        state[6] = opponent.isAttacking() ? 1.0 : -1.0;
-        state[7] = velocityY / 15.0;
-        state[8] = distance < 0.5 ? 1.0 : -1.0;
-        state[9] = (opponentCenterX > myCenterX) == facingRight ? 1.0 : -1.0;
+    private void finishDecision(boolean done) {
+        if (hasDecisionState && recorder != null) {
+            buildState(nextState);
+            recorder.record(decisionState, currentAction, decisionReward, nextState, done);
+        }
+        if (learning && hasDecisionState) {
+            if (recorder == null) {
+                buildState(nextState);
+            }
+            if (roundTransitions != null && learner == null) {
+                roundTransitions.add(decisionState, currentAction, decisionReward, nextState, done);
+            }
+            if (learner != null) {
+                learner.submit(decisionState, currentAction, decisionReward, nextState, done);
+                learner.drainTdErrors(learnerStats);
+                roundStats.addTdErrors(learnerStats.sumTdError, learnerStats.sumAbsTdError, learnerStats.maxAbsTdError, learnerStats.tdCount);
+                windowStats.addTdErrors(learnerStats.sumTdError, learnerStats.sumAbsTdError, learnerStats.maxAbsTdError, learnerStats.tdCount);
+                learnerStats.reset();
+            } else if (learningDeferred) {
+                if (deferredTransitions == null) {
+                    deferredTransitions = new TransitionBuffer(decisionState.length, 1024);
+                }
+                if (!deferredTransitions.add(decisionState, currentAction, decisionReward, nextState, done)) {
+                    deferredDropped++;
+                }
+            } else {
+                LearnStepEvent event = learnStepEvent;
+                event.begin();
+                double tdError = brain.learn(decisionState, currentAction, decisionReward, nextState, config.gamma, done);
+                event.end();
+                if (event.shouldCommit()) {
+                    event.tdError = tdError;
+                    event.replayed = false;
+                    event.commit();
+                }
+                roundStats.recordTdError(tdError);
+                windowStats.recordTdError(tdError);
+            }
+        }
         
+        decisionReward = 0;
+        decisionTicks = 0;
+        terminalLearned = done;
+    }
+
+    public double[] getState() {
+        double[] state = new double[features.getInputSize()];
+        buildState(state);
         return state;
     }
 
-    private void applyAction(int action) {
+    private void buildState(double[] state) {
+        observe();
+        features.build(state);
+    }
+
+    private void observe() {
+        observe(features, this, opponent);
+    }
+
+    static void observe(FeaturePipeline features, Fighter self, Fighter opponent) {
+        int myCenterX = self.x + self.width / 2;
+        int opponentCenterX = opponent.x + opponent.width / 2;
+
+        double[] frame = features.current();
+        frame[FeaturePipeline.MY_X] = myCenterX;
+        frame[FeaturePipeline.MY_Y] = self.y;
+        frame[FeaturePipeline.OPPONENT_X] = opponentCenterX;
+        frame[FeaturePipeline.OPPONENT_Y] = opponent.y;
+        frame[FeaturePipeline.MY_HEALTH] = self.health;
+        frame[FeaturePipeline.OPPONENT_HEALTH] = opponent.health;
+        frame[FeaturePipeline.ON_GROUND] = self.onGround ? 1.0 : -1.0;
+        frame[FeaturePipeline.ATTACKING] = self.isAttacking ? 1.0 : -1.0;
+        frame[FeaturePipeline.OPPONENT_ATTACKING] = opponent.isAttacking() ? 1.0 : -1.0;
+        frame[FeaturePipeline.VELOCITY_Y] = self.velocityY;
+        frame[FeaturePipeline.FACING_OPPONENT] = (opponentCenterX > myCenterX) == self.facingRight ? 1.0 : -1.0;
+        frame[FeaturePipeline.ATTACK_PROGRESS] = self.getAttackProgress();
+        frame[FeaturePipeline.OPPONENT_ATTACK_PROGRESS] = opponent.getAttackProgress();
+    }
+
+    static void applyAction(Fighter fighter, int action) {
         switch (action) {
-            case 0: moveLeft = true; break;
-            case 1: moveRight = true; break;
-            case 2: jumpAction = true; break;
-            case 3: dashDown = true; break;
-            case 4: fastAttack = true; break;
-            case 5: slowAttack = true; break;
+            case 0: fighter.moveLeft = true; break;
+            case 1: fighter.moveRight = true; break;
+            case 2: fighter.jumpAction = true; break;
+            case 3: fighter.dashDown = true; break;
+            case 4: fighter.fastAttack = true; break;
+            case 5: fighter.slowAttack = true; break;
         }
     }
 
     private double calculateReward() {
+        double reward = reward(this, opponent, lastHealth, lastOpponentHealth, lastDistance);
+        lastDistance = distance(this, opponent);
+        return reward;
+    }
+
+    static double distance(Fighter self, Fighter opponent) {
+        return Math.abs(opponent.x + opponent.width / 2 - (self.x + self.width / 2));
+    }
+
+    static double reward(Fighter self, Fighter opponent, int lastHealth, int lastOpponentHealth, double lastDistance) {
         double reward = 0;
-        int myCenterX = x + width / 2;
-        int opponentCenterX = opponent.x + opponent.width / 2;
-        double distance = Math.abs(opponentCenterX - myCenterX);
+        double distance = distance(self, opponent);
         
         int opponentDamage = lastOpponentHealth - opponent.health;
         if (opponentDamage > 0) {
             reward += opponentDamage * 3.0;
         }
         
-        int selfDamage = lastHealth - health;
+        int selfDamage = lastHealth - self.health;
         if (selfDamage > 0) {
             reward -= selfDamage * 2.0;
         }
@@ -172,12 +540,10 @@ public class AIPlayer extends Fighter {
         if (opponent.health <= 0) {
             reward += 100.0;
         }
-        if (health <= 0) {
+        if (self.health <= 0) {
             reward -= 100.0;
         }
         
-        lastDistance = distance;
-        
         return reward;
     }
 
@@ -185,26 +551,114 @@ public class AIPlayer extends Fighter {
     public void reset() {
         super.reset();
         initializeTracking();
+        decisionTicks = 0;
+        decisionReward = 0;
+        terminalLearned = false;
+        features.reset();
+        if (roundTransitions != null) {
+            roundTransitions.clear();
+            idleSweep = idleSweeps;
+        }
     }
 
+    @Override
     public void onRoundEnd(boolean won) {
+        RoundEndEvent roundEnd = roundEndEvent;
+        roundEnd.begin();
+        if (!terminalLearned) {
+            accumulateReward();
+            finishDecision(true);
+        }
+        
         rounds++;
         if (won) wins++; else losses++;
-        
-        epsilon = Math.max(EPSILON_MIN, epsilon * EPSILON_DECAY);
-        
-        if (rounds % 10 == 0) {
-            brain.save("ai_brain.dat");
+        if (roundTransitions != null) {
+            idleSweep = 0;
+            idleIndex = roundTransitions.size() - 1;
+            if (learner == null && learning) {
+                idleTarget.copyWeightsFrom(brain);
+            }
         }
         
-        System.out.printf("Round %d - AI %s | W/L: %d/%d | Eps: %.3f%n",
-                rounds, won ? "WON" : "LOST", wins, losses, epsilon);
+        if (learning) {
+            epsilon = Math.max(config.epsilonMin, epsilon * config.epsilonDecay);
+            
+            if (weightSync != null && rounds % syncRounds == 0) {
+                weightSync.push(brain);
+            }
+            if (checkpointLog != null) {
+                checkpointLog.append(learner != null ? learner.acquire() : brain);
+            } else if (checkpointFile != null && rounds % 10 == 0) {
+                CheckpointEvent event = checkpointEvent;
+                event.begin();
+                NeuralNetwork network = learner != null ? learner.acquire() : brain;
+                network.save(checkpointFile);
+                event.end();
+                if (event.shouldCommit()) {
+                    event.path = checkpointFile;
+                    event.version = rounds;
+                    event.full = true;
+                    event.bytes = new File(checkpointFile).length();
+                    event.commit();
+                }
+            }
+        }
         
-        totalReward = 0;
+        if (telemetry != null) {
+            telemetry.record(TrainingTelemetry.ROUND, rounds, won, epsilon, roundStats);
+        }
+        roundEnd.end();
+        if (roundEnd.shouldCommit()) {
+            roundEnd.round = rounds;
+            roundEnd.won = won;
+            roundEnd.reward = roundStats.reward;
+            roundEnd.ticks = roundStats.ticks;
+            roundEnd.epsilon = epsilon;
+            roundEnd.commit();
+        }
+        roundStats.reset();
+    }
+
+    @Override
+    public void onIdleTick() {
+        learnDeferredTransitions();
+        if (!learning) return;
+        if (learner != null) {
+            learner.replayFor(idleBudgetNanos);
+            return;
+        }
+        if (roundTransitions == null || idleSweep >= idleSweeps || roundTransitions.size() == 0) return;
+
+        long deadline = System.nanoTime() + idleBudgetNanos;
+        while (idleSweep < idleSweeps && System.nanoTime() < deadline) {
+            int i = idleIndex;
+            roundTransitions.getState(i, idleState);
+            roundTransitions.getNextState(i, idleNextState);
+            LearnStepEvent event = learnStepEvent;
+            event.begin();
+            double tdError = brain.learn(idleState, roundTransitions.getAction(i), roundTransitions.getReward(i),
+                    idleNextState, config.gamma, roundTransitions.isDone(i), idleTarget);
+            event.end();
+            if (event.shouldCommit()) {
+                event.tdError = tdError;
+                event.replayed = true;
+                event.commit();
+            }
+            windowStats.recordTdError(tdError);
+            idleSteps++;
+            if (--idleIndex < 0) {
+                idleSweep++;
+                idleIndex = roundTransitions.size() - 1;
+            }
+        }
     }
 
+    public long getIdleSteps() { return idleSteps + (learner != null ? learner.getIdleSteps() : 0); }
+    public long getDeferredDropped() { return deferredDropped; }
     public int getWins() { return wins; }
     public int getLosses() { return losses; }
     public int getRounds() { return rounds; }
     public double getEpsilon() { return epsilon; }
+    public int getDecisionInterval() { return decisionInterval; }
+    public NeuralNetwork getBrain() { return brain; }
 }
\ No newline at end of file
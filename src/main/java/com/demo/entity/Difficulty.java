@@ -0,0 +1,13 @@
+package com.demo.entity;
+
+public enum Difficulty {
+    EASY(8),
+    NORMAL(4),
+    HARD(2);
+
+    public final int decisionInterval;
+
+    Difficulty(int decisionInterval) {
+        this.decisionInterval = decisionInterval;
+    }
+}
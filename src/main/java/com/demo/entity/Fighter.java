@@ -1,16 +1,24 @@
 package com.demo.entity;
 
-import java.awt.Color;
-import java.awt.Graphics2D;
 import java.awt.Rectangle;
 import java.awt.image.BufferedImage;
 import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import javax.imageio.ImageIO;
 
-import com.demo.GamePanel;
+import com.demo.Arena;
+import com.demo.RenderSnapshot;
 
 public abstract class Fighter extends Entity {
-    protected GamePanel gp;
+    private static final Map<String, BufferedImage[]> SPRITE_CACHE = new ConcurrentHashMap<>();
+    private static final String[] SHEET_FILES = {
+        "/Idle.png", "/Run.png", "/Jump.png", "/Fall.png", "/Attack1.png", "/Attack2.png", "/Take Hit.png", "/Death.png"
+    };
+    private static final int[] SHEET_FRAMES = { 8, 8, 2, 2, 6, 3, 4, 6 };
+
+    protected Arena arena;
     public int width = 300;
     public int height = 300;
     public State currentState = State.IDLE;
@@ -24,12 +32,14 @@ public abstract class Fighter extends Entity {
     protected boolean isTakingHit = false;
     protected BufferedImage[] currentSprites;
     protected boolean attackHit = false;
+    private final Rectangle hitbox = new Rectangle();
+    private final Rectangle attackHitbox = new Rectangle();
     
     protected boolean moveLeft, moveRight, jumpAction, dashDown;
     protected boolean fastAttack, slowAttack;
 
-    public Fighter(GamePanel gp) {
-        this.gp = gp;
+    public Fighter(Arena arena) {
+        this.arena = arena;
     }
 
     protected abstract String getSpritePath();
@@ -44,7 +54,7 @@ public abstract class Fighter extends Entity {
         height = 300;
         health = 100;
         x = getStartX();
-        y = gp.groundY;
+        y = arena.groundY;
         speed = 4;
         facingRight = getDefaultFacingRight();
         currentSprites = idleSprites;
@@ -53,27 +63,46 @@ public abstract class Fighter extends Entity {
     public void loadSprites() {
         try {
             String path = getSpritePath();
-            idleSprites = setup(path + "/Idle.png", 8, 200, 200);
-            runSprites = setup(path + "/Run.png", 8, 200, 200);
-            jumpSprites = setup(path + "/Jump.png", 2, 200, 200);
-            fallSprites = setup(path + "/Fall.png", 2, 200, 200);
-            slowAttackSprites = setup(path + "/Attack1.png", 6, 200, 200);
-            fastAttackSprites = setup(path + "/Attack2.png", 3, 200, 200);
-            deathSprites = setup(path + "/Death.png", 6, 200, 200);
-            takeHitSprites = setup(path + "/Take Hit.png", 4, 200, 200);
+            idleSprites = spriteSheet(path, 0);
+            runSprites = spriteSheet(path, 1);
+            jumpSprites = spriteSheet(path, 2);
+            fallSprites = spriteSheet(path, 3);
+            slowAttackSprites = spriteSheet(path, 4);
+            fastAttackSprites = spriteSheet(path, 5);
+            takeHitSprites = spriteSheet(path, 6);
+            deathSprites = spriteSheet(path, 7);
             currentSprites = idleSprites;
-        } catch (IOException e) {
+        } catch (UncheckedIOException e) {
             e.printStackTrace();
         }
     }
 
+    public static BufferedImage[] spriteSheet(String spritePath, int index) {
+        if (index < 0 || index >= SHEET_FILES.length) return null;
+        try {
+            return loadSheet(spritePath + SHEET_FILES[index], SHEET_FRAMES[index], 200, 200);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not load " + spritePath + SHEET_FILES[index], e);
+        }
+    }
+
     public BufferedImage[] setup(String imagePath, int frameCount, int frameWidth, int frameHeight) throws IOException {
+        return loadSheet(imagePath, frameCount, frameWidth, frameHeight);
+    }
+
+    private static BufferedImage[] loadSheet(String imagePath, int frameCount, int frameWidth, int frameHeight) throws IOException {
+        BufferedImage[] cached = SPRITE_CACHE.get(imagePath);
+        if (cached != null) {
+            return cached;
+        }
+
         BufferedImage[] images = new BufferedImage[frameCount];
-        BufferedImage spriteSheet = ImageIO.read(getClass().getResourceAsStream(imagePath));
+        BufferedImage spriteSheet = ImageIO.read(Fighter.class.getResourceAsStream(imagePath));
         
         for (int i = 0; i < frameCount; i++) {
             images[i] = spriteSheet.getSubimage(i * frameWidth, 0, frameWidth, frameHeight);
         }
+        SPRITE_CACHE.put(imagePath, images);
         return images;
     }
 
@@ -142,7 +171,7 @@ public abstract class Fighter extends Entity {
         }
         
         if (x < -128) x = -128;
-        if (x > gp.screenWidth - 172) x = gp.screenWidth - 172;
+        if (x > arena.screenWidth - 172) x = arena.screenWidth - 172;
     }
 
     protected void handleJump() {
@@ -181,8 +210,8 @@ public abstract class Fighter extends Entity {
             velocityY += GRAVITY;
             y += (int) velocityY;
 
-            if (y >= gp.groundY) {
-                y = gp.groundY;
+            if (y >= arena.groundY) {
+                y = arena.groundY;
                 velocityY = 0;
                 onGround = true;
             }
@@ -239,22 +268,46 @@ public abstract class Fighter extends Entity {
         }
     }
 
-    public void draw(Graphics2D g2) {
-        BufferedImage image = null;
+    public void capture(RenderSnapshot.FighterView view) {
+        view.spritePath = getSpritePath();
+        view.sheet = getSpriteSheetIndex();
+        view.frame = spriteNum;
+        view.image = currentSprites != null && spriteNum < currentSprites.length ? currentSprites[spriteNum] : null;
+        view.x = x;
+        view.y = y;
+        view.width = width;
+        view.height = height;
+        view.facingRight = facingRight;
+        view.health = health;
+
+        Rectangle hitbox = getHitbox();
+        view.hasHitbox = hitbox != null;
+        if (hitbox != null) view.hitbox.setBounds(hitbox);
+
+        Rectangle attack = getAttackHitbox();
+        view.hasAttackHitbox = attack != null;
+        if (attack != null) view.attackHitbox.setBounds(attack);
+    }
 
-        if (currentSprites != null && spriteNum < currentSprites.length) {
-            image = currentSprites[spriteNum];
+    public int getSpriteSheetIndex() {
+        if (currentSprites == null) return -1;
+        for (int i = 0; i < 8; i++) {
+            if (currentSprites == getSpriteSheet(i)) return i;
         }
+        return -1;
+    }
 
-        if (image != null) {
-            if (facingRight) {
-                g2.drawImage(image, x, y, width, height, null);
-            } else {
-                g2.drawImage(image, x + width, y, -width, height, null);
-            }
-        } else {
-            g2.setColor(Color.BLUE);
-            g2.fillRect(x + 100, y + 50, 100, 200);
+    public BufferedImage[] getSpriteSheet(int index) {
+        switch (index) {
+            case 0: return idleSprites;
+            case 1: return runSprites;
+            case 2: return jumpSprites;
+            case 3: return fallSprites;
+            case 4: return slowAttackSprites;
+            case 5: return fastAttackSprites;
+            case 6: return takeHitSprites;
+            case 7: return deathSprites;
+            default: return null;
         }
     }
 
@@ -264,7 +317,8 @@ public abstract class Fighter extends Entity {
         int hitboxX = x + (width - hitboxWidth) / 2;
         int hitboxY = y + 110;
         
-        return new Rectangle(hitboxX, hitboxY, hitboxWidth, hitboxHeight);
+        hitbox.setBounds(hitboxX, hitboxY, hitboxWidth, hitboxHeight);
+        return hitbox;
     }
 
     public Rectangle getAttackHitbox() {
@@ -294,12 +348,46 @@ public abstract class Fighter extends Entity {
                 attackX = body.x + 20 - attackWidth;
             }
             
-            return new Rectangle(attackX, attackY, attackWidth, attackHeight);
+            attackHitbox.setBounds(attackX, attackY, attackWidth, attackHeight);
+            return attackHitbox;
         }
         
         return null;
     }
 
+    void copyStateFrom(Fighter other) {
+        x = other.x;
+        y = other.y;
+        speed = other.speed;
+        health = other.health;
+        width = other.width;
+        height = other.height;
+        spriteCounter = other.spriteCounter;
+        spriteNum = other.spriteNum;
+        currentState = other.currentState;
+        velocityY = other.velocityY;
+        onGround = other.onGround;
+        facingRight = other.facingRight;
+        isAttacking = other.isAttacking;
+        isTakingHit = other.isTakingHit;
+        attackHit = other.attackHit;
+        currentSprites = other.currentSprites;
+        idleSprites = other.idleSprites;
+        runSprites = other.runSprites;
+        jumpSprites = other.jumpSprites;
+        fallSprites = other.fallSprites;
+        slowAttackSprites = other.slowAttackSprites;
+        fastAttackSprites = other.fastAttackSprites;
+        takeHitSprites = other.takeHitSprites;
+        deathSprites = other.deathSprites;
+        moveLeft = other.moveLeft;
+        moveRight = other.moveRight;
+        jumpAction = other.jumpAction;
+        dashDown = other.dashDown;
+        fastAttack = other.fastAttack;
+        slowAttack = other.slowAttack;
+    }
+
     public void setAttackHit(boolean hit) {
         this.attackHit = hit;
     }
@@ -326,10 +414,16 @@ public abstract class Fighter extends Entity {
         }
     }
 
+    public void onRoundEnd(boolean won) {
+    }
+
+    public void onIdleTick() {
+    }
+
     public void reset() {
         health = 100;
         x = getStartX();
-        y = gp.groundY;
+        y = arena.groundY;
         currentState = State.IDLE;
         currentSprites = idleSprites;
         spriteNum = 0;
@@ -346,6 +440,11 @@ public abstract class Fighter extends Entity {
         return isAttacking;
     }
 
+    public double getAttackProgress() {
+        if (!isAttacking || currentSprites == null) return 0;
+        return (spriteNum + 1) / (double) currentSprites.length;
+    }
+
     public boolean isFacingRight() {
         return facingRight;
     }
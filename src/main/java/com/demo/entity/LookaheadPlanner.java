@@ -0,0 +1,327 @@
+package com.demo.entity;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.demo.Arena;
+import com.demo.Match;
+import com.demo.ai.FeaturePipeline;
+import com.demo.ai.InferenceContext;
+import com.demo.ai.NeuralNetwork;
+
+public class LookaheadPlanner implements AutoCloseable {
+    private static final int ACTION_COUNT = 6;
+
+    private final Arena arena;
+    private final int depth;
+    private final int beamWidth;
+    private final long budgetNanos;
+    private final Worker[] workers;
+    private final ExecutorService pool;
+    private final double[] rootValues = new double[ACTION_COUNT];
+    private final int[] rootDepths = new int[ACTION_COUNT];
+    private final double[] levelValues;
+
+    private NeuralNetwork network;
+    private Fighter self;
+    private Fighter opponent;
+    private FeaturePipeline features;
+    private int decisionInterval;
+    private double gamma;
+    private int lastHealth;
+    private int lastOpponentHealth;
+    private double lastDistance;
+    private long deadline;
+    private CountDownLatch done;
+
+    private long plans;
+    private long planNanos;
+    private long maxPlanNanos;
+    private long depthSum;
+
+    private class Node {
+        final SimFighter self = new SimFighter(arena, true);
+        final SimFighter opponent = new SimFighter(arena, false);
+        final FeaturePipeline features;
+        double discountedReturn;
+        double discount;
+        double value;
+        int lastHealth;
+        int lastOpponentHealth;
+        double lastDistance;
+        boolean terminal;
+
+        Node(FeaturePipeline template) {
+            features = template.copy();
+        }
+
+        void copyFrom(Node other) {
+            self.copyFrom(other.self, opponent);
+            opponent.copyFrom(other.opponent, self);
+            features.copyFrom(other.features);
+            discountedReturn = other.discountedReturn;
+            discount = other.discount;
+            value = other.value;
+            lastHealth = other.lastHealth;
+            lastOpponentHealth = other.lastOpponentHealth;
+            lastDistance = other.lastDistance;
+            terminal = other.terminal;
+        }
+    }
+
+    private class Worker implements Runnable {
+        final int index;
+        Node root;
+        Node[] beam;
+        Node[] next;
+        Node[] children;
+        int[] order;
+        InferenceContext context;
+        int[] contextSizes = new int[0];
+        double[] input = new double[0];
+
+        Worker(int index) {
+            this.index = index;
+        }
+
+        void prepare() {
+            if (root == null) {
+                root = new Node(features);
+                beam = new Node[beamWidth];
+                next = new Node[beamWidth];
+                children = new Node[beamWidth * ACTION_COUNT];
+                for (int i = 0; i < beamWidth; i++) {
+                    beam[i] = new Node(features);
+                    next[i] = new Node(features);
+                }
+                for (int i = 0; i < children.length; i++) {
+                    children[i] = new Node(features);
+                }
+                order = new int[children.length];
+            }
+            if (!network.hasLayerSizes(contextSizes)) {
+                contextSizes = network.getLayerSizes();
+                context = network.newContext();
+                input = new double[network.getInputSize()];
+            }
+        }
+
+        @Override
+        public void run() {
+            try {
+                prepare();
+                for (int action = index; action < ACTION_COUNT; action += workers.length) {
+                    search(action);
+                }
+            } finally {
+                done.countDown();
+            }
+        }
+
+        private void search(int rootAction) {
+            root.self.copyFrom(self, root.opponent);
+            root.opponent.copyFrom(opponent, root.self);
+            root.features.copyFrom(features);
+            root.discountedReturn = 0;
+            root.discount = 1;
+            root.lastHealth = lastHealth;
+            root.lastOpponentHealth = lastOpponentHealth;
+            root.lastDistance = lastDistance;
+            root.terminal = false;
+
+            expand(root, rootAction, beam[0]);
+            int beamSize = 1;
+            levelValues[rootAction * depth] = beam[0].value;
+            int reached = 1;
+
+            for (int level = 1; level < depth && System.nanoTime() < deadline; level++) {
+                int count = 0;
+                boolean expired = false;
+                for (int b = 0; b < beamSize && !expired; b++) {
+                    Node parent = beam[b];
+                    if (parent.terminal) {
+                        children[count++].copyFrom(parent);
+                        continue;
+                    }
+                    for (int action = 0; action < ACTION_COUNT; action++) {
+                        if (System.nanoTime() >= deadline) {
+                            expired = true;
+                            break;
+                        }
+                        expand(parent, action, children[count++]);
+                    }
+                }
+                if (expired) break;
+
+                beamSize = select(count);
+                Node[] swap = beam;
+                beam = next;
+                next = swap;
+                levelValues[rootAction * depth + level] = beam[0].value;
+                reached = level + 1;
+            }
+
+            rootDepths[rootAction] = reached;
+        }
+
+        private int select(int count) {
+            for (int i = 0; i < count; i++) {
+                order[i] = i;
+            }
+            int kept = Math.min(beamWidth, count);
+            for (int k = 0; k < kept; k++) {
+                int bestIndex = k;
+                for (int i = k + 1; i < count; i++) {
+                    if (children[order[i]].value > children[order[bestIndex]].value) {
+                        bestIndex = i;
+                    }
+                }
+                int swap = order[k];
+                order[k] = order[bestIndex];
+                order[bestIndex] = swap;
+                next[k].copyFrom(children[order[k]]);
+            }
+            return kept;
+        }
+
+        private void expand(Node parent, int action, Node child) {
+            child.copyFrom(parent);
+            child.self.action = action;
+            child.features.recordAction(action);
+
+            double reward = 0;
+            SimFighter me = child.self;
+            SimFighter them = child.opponent;
+            for (int t = 0; t < decisionInterval; t++) {
+                me.update();
+                them.update();
+                Match.checkCombat(me, them);
+
+                reward += AIPlayer.reward(me, them, child.lastHealth, child.lastOpponentHealth, child.lastDistance);
+                child.lastHealth = me.health;
+                child.lastOpponentHealth = them.health;
+                child.lastDistance = AIPlayer.distance(me, them);
+                AIPlayer.observe(child.features, me, them);
+                child.features.commit();
+
+                if (me.health <= 0 || them.health <= 0) {
+                    child.terminal = true;
+                    break;
+                }
+            }
+
+            child.discountedReturn = parent.discountedReturn + parent.discount * reward;
+            child.discount = parent.discount * gamma;
+            if (child.terminal) {
+                child.value = child.discountedReturn;
+            } else {
+                child.features.build(input);
+                child.value = child.discountedReturn + child.discount * NeuralNetwork.getMax(network.forward(context, input));
+            }
+        }
+    }
+
+    public LookaheadPlanner(Arena arena, int depth, int beamWidth, long budgetNanos, int threads) {
+        if (depth < 1 || beamWidth < 1 || threads < 1) {
+            throw new IllegalArgumentException("depth, beam width and threads must be positive");
+        }
+        this.arena = arena;
+        this.depth = depth;
+        this.beamWidth = beamWidth;
+        this.levelValues = new double[ACTION_COUNT * depth];
+        this.budgetNanos = budgetNanos;
+        int workerCount = Math.min(threads, ACTION_COUNT);
+        this.workers = new Worker[workerCount];
+        for (int i = 0; i < workerCount; i++) {
+            workers[i] = new Worker(i);
+        }
+        AtomicInteger threadIndex = new AtomicInteger();
+        this.pool = workerCount > 1 ? Executors.newFixedThreadPool(workerCount - 1, r -> {
+            Thread thread = new Thread(r, "lookahead-" + threadIndex.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }) : null;
+    }
+
+    public static LookaheadPlanner fromProperties(Arena arena) {
+        int threads = Integer.getInteger("betterenemy.lookahead.threads", 0);
+        if (threads <= 0) return null;
+        return new LookaheadPlanner(arena,
+                Integer.getInteger("betterenemy.lookahead.depth", 6),
+                Integer.getInteger("betterenemy.lookahead.beam", 4),
+                Integer.getInteger("betterenemy.lookahead.budgetMicros", 3000) * 1000L,
+                threads);
+    }
+
+    double[] plan(NeuralNetwork network, AIPlayer self, Fighter opponent, FeaturePipeline features, int decisionInterval,
+                  double gamma, int lastHealth, int lastOpponentHealth, double lastDistance) {
+        long start = System.nanoTime();
+        this.network = network;
+        this.self = self;
+        this.opponent = opponent;
+        this.features = features;
+        this.decisionInterval = decisionInterval;
+        this.gamma = gamma;
+        this.lastHealth = lastHealth;
+        this.lastOpponentHealth = lastOpponentHealth;
+        this.lastDistance = lastDistance;
+        this.deadline = start + budgetNanos;
+        this.done = new CountDownLatch(workers.length);
+
+        for (int i = 1; i < workers.length; i++) {
+            pool.execute(workers[i]);
+        }
+        workers[0].run();
+        boolean interrupted = false;
+        while (true) {
+            try {
+                done.await();
+                break;
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+
+        long elapsed = System.nanoTime() - start;
+        plans++;
+        planNanos += elapsed;
+        maxPlanNanos = Math.max(maxPlanNanos, elapsed);
+        int common = depth;
+        for (int a = 0; a < ACTION_COUNT; a++) {
+            depthSum += rootDepths[a];
+            common = Math.min(common, rootDepths[a]);
+        }
+        for (int a = 0; a < ACTION_COUNT; a++) {
+            rootValues[a] = levelValues[a * depth + common - 1];
+        }
+        return rootValues;
+    }
+
+    public long getPlans() {
+        return plans;
+    }
+
+    public double getMeanPlanMicros() {
+        return plans == 0 ? 0 : planNanos / 1000.0 / plans;
+    }
+
+    public double getMaxPlanMicros() {
+        return maxPlanNanos / 1000.0;
+    }
+
+    public double getMeanDepth() {
+        return plans == 0 ? 0 : (double) depthSum / (plans * ACTION_COUNT);
+    }
+
+    @Override
+    public void close() {
+        if (pool != null) {
+            pool.shutdownNow();
+        }
+    }
+}
@@ -1,13 +1,13 @@
 package com.demo.entity;
 
-import com.demo.GamePanel;
+import com.demo.Arena;
 import com.demo.KeyHandler;
 
 public class Player extends Fighter {
     private KeyHandler keyH;
 
-    public Player(GamePanel gp, KeyHandler keyH) {
-        super(gp);
+    public Player(Arena arena, KeyHandler keyH) {
+        super(arena);
         this.keyH = keyH;
         setDefaultValues();
         loadSprites();
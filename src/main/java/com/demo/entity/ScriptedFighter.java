@@ -0,0 +1,127 @@
+package com.demo.entity;
+
+import java.util.Random;
+
+import com.demo.Arena;
+
+public class ScriptedFighter extends Fighter {
+    public enum Script {
+        PASSIVE, CHASER, TURTLE, RANDOM
+    }
+
+    private final Script script;
+    private final Random random;
+    private Fighter opponent;
+
+    private int heldAction = -1;
+    private int holdTicks = 0;
+
+    public ScriptedFighter(Arena arena, Script script, long seed) {
+        super(arena);
+        this.script = script;
+        this.random = new Random(seed);
+        setDefaultValues();
+        loadSprites();
+    }
+
+    public void setOpponent(Fighter opponent) {
+        this.opponent = opponent;
+    }
+
+    public Script getScript() {
+        return script;
+    }
+
+    @Override
+    protected String getSpritePath() {
+        return "/assets/character/Player";
+    }
+
+    @Override
+    protected int getStartX() {
+        return 100;
+    }
+
+    @Override
+    protected boolean getDefaultFacingRight() {
+        return true;
+    }
+
+    @Override
+    protected void handleInput() {
+        resetActions();
+        if (opponent == null) return;
+
+        int myCenterX = x + width / 2;
+        int opponentCenterX = opponent.x + opponent.width / 2;
+        int distance = Math.abs(opponentCenterX - myCenterX);
+        boolean opponentToRight = opponentCenterX > myCenterX;
+
+        if (!isAttacking) {
+            facingRight = opponentToRight;
+        }
+
+        switch (script) {
+            case PASSIVE:
+                break;
+            case CHASER:
+                if (distance > 140) {
+                    moveTowards(opponentToRight);
+                } else if (random.nextInt(4) == 0) {
+                    slowAttack = true;
+                } else {
+                    fastAttack = true;
+                }
+                break;
+            case TURTLE:
+                if (opponent.isAttacking() && distance < 250) {
+                    moveTowards(!opponentToRight);
+                } else if (distance < 160) {
+                    fastAttack = true;
+                } else if (distance > 320) {
+                    moveTowards(opponentToRight);
+                }
+                break;
+            case RANDOM:
+                if (holdTicks <= 0) {
+                    heldAction = random.nextInt(7);
+                    holdTicks = 4 + random.nextInt(20);
+                }
+                holdTicks--;
+                applyHeldAction();
+                break;
+        }
+    }
+
+    private void moveTowards(boolean right) {
+        moveRight = right;
+        moveLeft = !right;
+    }
+
+    private void applyHeldAction() {
+        switch (heldAction) {
+            case 0: moveLeft = true; break;
+            case 1: moveRight = true; break;
+            case 2: jumpAction = true; break;
+            case 3: dashDown = true; break;
+            case 4: fastAttack = true; break;
+            case 5: slowAttack = true; break;
+            default: break;
+        }
+    }
+
+    @Override
+    protected void onUpdateStart() {
+    }
+
+    @Override
+    protected void onUpdateEnd() {
+    }
+
+    @Override
+    public void reset() {
+        super.reset();
+        heldAction = -1;
+        holdTicks = 0;
+    }
+}
@@ -0,0 +1,57 @@
+package com.demo.entity;
+
+import com.demo.Arena;
+
+class SimFighter extends Fighter {
+    private final boolean planned;
+    private Fighter opponent;
+    private String spritePath;
+    private boolean defaultFacingRight;
+    int action;
+
+    SimFighter(Arena arena, boolean planned) {
+        super(arena);
+        this.planned = planned;
+    }
+
+    void copyFrom(Fighter source, Fighter opponent) {
+        copyStateFrom(source);
+        this.opponent = opponent;
+        this.spritePath = source.getSpritePath();
+        this.defaultFacingRight = source.getDefaultFacingRight();
+    }
+
+    @Override
+    protected String getSpritePath() {
+        return spritePath;
+    }
+
+    @Override
+    protected int getStartX() {
+        return x;
+    }
+
+    @Override
+    protected boolean getDefaultFacingRight() {
+        return defaultFacingRight;
+    }
+
+    @Override
+    protected void handleInput() {
+        if (!isAttacking) {
+            facingRight = opponent.x + opponent.width / 2 > x + width / 2;
+        }
+        if (planned) {
+            resetActions();
+            AIPlayer.applyAction(this, action);
+        }
+    }
+
+    @Override
+    protected void onUpdateStart() {
+    }
+
+    @Override
+    protected void onUpdateEnd() {
+    }
+}
@@ -0,0 +1,30 @@
+package com.demo.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+@Name("com.demo.Checkpoint")
+@Label("Checkpoint Save")
+@Category({ "BetterEnemy", "AI" })
+@Description("A network checkpoint written to disk")
+@Threshold("0 ms")
+@StackTrace(false)
+public class CheckpointEvent extends jdk.jfr.Event {
+    @Label("Path")
+    public String path;
+
+    @Label("Version")
+    public long version;
+
+    @Label("Full Snapshot")
+    public boolean full;
+
+    @Label("Size")
+    @DataAmount
+    public long bytes;
+}
@@ -0,0 +1,28 @@
+package com.demo.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+@Name("com.demo.Decision")
+@Label("AI Decision")
+@Category({ "BetterEnemy", "AI" })
+@Description("An action chosen by the AI at a decision tick")
+@Threshold("0 ms")
+@StackTrace(false)
+public class DecisionEvent extends jdk.jfr.Event {
+    @Label("Action")
+    public int action;
+
+    @Label("Epsilon")
+    public double epsilon;
+
+    @Label("Max Q")
+    public double maxQ;
+
+    @Label("Distilled Policy")
+    public boolean distilled;
+}
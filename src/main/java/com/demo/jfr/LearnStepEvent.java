@@ -0,0 +1,25 @@
+package com.demo.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+@Name("com.demo.LearnStep")
+@Label("Learn Step")
+@Category({ "BetterEnemy", "AI" })
+@Description("A single temporal-difference update that ran longer than the threshold")
+@Threshold("1 ms")
+@StackTrace(false)
+public class LearnStepEvent extends jdk.jfr.Event {
+    @Label("TD Error")
+    public double tdError;
+
+    @Label("Replayed")
+    public boolean replayed;
+
+    @Label("Background")
+    public boolean background;
+}
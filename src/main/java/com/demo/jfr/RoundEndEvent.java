@@ -0,0 +1,29 @@
+package com.demo.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("com.demo.RoundEnd")
+@Label("Round End")
+@Category({ "BetterEnemy", "Game" })
+@Description("The end of a round as seen by an AI fighter")
+@StackTrace(false)
+public class RoundEndEvent extends jdk.jfr.Event {
+    @Label("Round")
+    public int round;
+
+    @Label("Won")
+    public boolean won;
+
+    @Label("Reward")
+    public double reward;
+
+    @Label("Ticks")
+    public long ticks;
+
+    @Label("Epsilon")
+    public double epsilon;
+}
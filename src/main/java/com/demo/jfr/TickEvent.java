@@ -0,0 +1,32 @@
+package com.demo.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+import jdk.jfr.Timespan;
+
+@Name("com.demo.Tick")
+@Label("Game Tick")
+@Category({ "BetterEnemy", "Game" })
+@Description("A game loop tick that ran longer than the threshold, with its phase durations")
+@Threshold("20 ms")
+@StackTrace(false)
+public class TickEvent extends jdk.jfr.Event {
+    @Label("Leaves")
+    @Timespan(Timespan.NANOSECONDS)
+    public long leavesNanos;
+
+    @Label("Match Update")
+    @Timespan(Timespan.NANOSECONDS)
+    public long matchNanos;
+
+    @Label("Last Paint")
+    @Timespan(Timespan.NANOSECONDS)
+    public long paintNanos;
+
+    @Label("Governor Level")
+    public String governorLevel;
+}
@@ -0,0 +1,125 @@
+package com.demo.sim;
+
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadInfo;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.List;
+
+import com.demo.GamePanel;
+
+public class AllocationCheck {
+    private static final List<String> BACKGROUND = List.of("ai-learner", "telemetry-writer", "checkpoint-writer");
+
+    public static void main(String[] args) throws Exception {
+        System.setProperty("java.awt.headless", "true");
+        int warmup = Integer.getInteger("betterenemy.alloc.warmup", 20_000);
+        int ticks = Integer.getInteger("betterenemy.alloc.ticks", 3_000);
+        long budget = Long.getLong("betterenemy.alloc.budget", 0L);
+        long backgroundBudget = Long.getLong("betterenemy.alloc.backgroundBudget", 256L);
+
+        File checkpoints = Files.createTempDirectory(Files.createDirectories(Paths.get("target")), "alloc-check-").toFile();
+        System.setProperty("betterenemy.checkpointLog", checkpoints.getPath());
+        System.setProperty("betterenemy.brainMirror", new File(checkpoints, "ai_brain.dat").getPath());
+        System.setProperty("betterenemy.telemetry", new File(checkpoints, "telemetry").getPath());
+        System.setProperty("betterenemy.checkpointBaseInterval", Integer.toString(Integer.MAX_VALUE));
+
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        if (!threads.isThreadAllocatedMemorySupported()) {
+            System.err.println("Per-thread allocation accounting is not supported by this JVM");
+            System.exit(2);
+        }
+        threads.setThreadAllocatedMemoryEnabled(true);
+
+        boolean failed = false;
+        for (boolean sync : new boolean[] { false, true }) {
+            System.setProperty("betterenemy.syncLearning", Boolean.toString(sync));
+            System.out.println(sync ? "sync learning" : "async learning");
+            failed |= !measure(threads, warmup, ticks, budget, backgroundBudget);
+        }
+        System.exit(failed ? 1 : 0);
+    }
+
+    private static boolean measure(com.sun.management.ThreadMXBean threads, int warmup, int ticks, long budget,
+                                   long backgroundBudget) {
+        long thread = Thread.currentThread().getId();
+        long[] existing = threads.getAllThreadIds();
+        GamePanel panel = new GamePanel();
+        panel.setSize(panel.getPreferredSize());
+        BufferedImage frame = new BufferedImage(panel.screenWidth, panel.screenHeight, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g2 = frame.createGraphics();
+
+        for (int i = 0; i < warmup; i++) {
+            panel.runFrame();
+            if (i % 4 == 0) panel.renderFrame(g2);
+        }
+
+        long[] background = backgroundThreads(threads, existing);
+        long[] bytes = new long[3 + background.length];
+        sample(threads, thread, background, panel, g2, ticks, bytes);
+        sample(threads, thread, background, panel, g2, ticks, bytes);
+        g2.dispose();
+
+        long tickBytes = bytes[0] - bytes[2];
+        long renderBytes = bytes[1] - bytes[2];
+        System.out.printf("tick:   %d bytes over %d ticks (%.1f B/tick)%n", tickBytes, ticks, (double) tickBytes / ticks);
+        System.out.printf("render: %d bytes over %d frames (%.1f B/frame)%n", renderBytes, ticks, (double) renderBytes / ticks);
+        boolean passed = tickBytes <= budget && renderBytes <= budget;
+        for (int i = 0; i < background.length; i++) {
+            ThreadInfo info = threads.getThreadInfo(background[i]);
+            String name = info != null ? info.getThreadName() : "thread " + background[i];
+            System.out.printf("%-18s %d bytes over %d ticks (%.1f B/tick)%n", name + ":", bytes[3 + i], ticks,
+                    (double) bytes[3 + i] / ticks);
+            passed &= bytes[3 + i] <= backgroundBudget;
+        }
+
+        if (!passed) {
+            System.out.println("FAIL: steady-state allocation above budget of " + budget + " bytes ("
+                    + backgroundBudget + " on background threads)");
+        }
+        return passed;
+    }
+
+    private static long[] backgroundThreads(com.sun.management.ThreadMXBean threads, long[] existing) {
+        Arrays.sort(existing);
+        long[] ids = threads.getAllThreadIds();
+        long[] found = new long[ids.length];
+        int count = 0;
+        for (ThreadInfo info : threads.getThreadInfo(ids)) {
+            if (info != null && BACKGROUND.contains(info.getThreadName())
+                    && Arrays.binarySearch(existing, info.getThreadId()) < 0) {
+                found[count++] = info.getThreadId();
+            }
+        }
+        return Arrays.copyOf(found, count);
+    }
+
+    private static void sample(com.sun.management.ThreadMXBean threads, long thread, long[] background,
+                               GamePanel panel, Graphics2D g2, int ticks, long[] bytes) {
+        Arrays.fill(bytes, 0);
+        for (int i = 0; i < ticks; i++) {
+            long before = threads.getThreadAllocatedBytes(thread);
+            long after = threads.getThreadAllocatedBytes(thread);
+            bytes[2] += after - before;
+        }
+
+        long[] backgroundBefore = threads.getThreadAllocatedBytes(background);
+        for (int i = 0; i < ticks; i++) {
+            long before = threads.getThreadAllocatedBytes(thread);
+            panel.runFrame();
+            long updated = threads.getThreadAllocatedBytes(thread);
+            panel.renderFrame(g2);
+            long rendered = threads.getThreadAllocatedBytes(thread);
+            bytes[0] += updated - before;
+            bytes[1] += rendered - updated;
+        }
+        long[] backgroundAfter = threads.getThreadAllocatedBytes(background);
+        for (int i = 0; i < background.length; i++) {
+            bytes[3 + i] = backgroundAfter[i] < 0 ? 0 : backgroundAfter[i] - backgroundBefore[i];
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package com.demo.sim;
+
+import java.io.File;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.List;
+
+import com.demo.ai.CheckpointLog;
+import com.demo.ai.NeuralNetwork;
+
+public class CheckpointTool {
+    public static void main(String[] args) {
+        String command = args.length > 0 ? args[0] : "list";
+        File directory = new File(args.length > 1 ? args[1] : "checkpoints");
+
+        switch (command) {
+            case "list":
+                list(directory);
+                break;
+            case "restore":
+                if (args.length < 3) usage();
+                long version = Long.parseLong(args[2]);
+                String output = args.length > 3 ? args[3] : "ai_brain.dat";
+                restore(directory, version, output);
+                break;
+            case "compact":
+                try (CheckpointLog log = new CheckpointLog(directory, 10, args.length > 2 ? Long.parseLong(args[2]) << 20 : 64L << 20, 2, 4)) {
+                    log.compact();
+                }
+                list(directory);
+                break;
+            default:
+                usage();
+        }
+    }
+
+    private static void list(File directory) {
+        List<CheckpointLog.Entry> entries = CheckpointLog.list(directory);
+        SimpleDateFormat format = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss");
+        long total = 0;
+        for (CheckpointLog.Entry entry : entries) {
+            System.out.printf("%8d  %s  %-5s %9d B  %s%n", entry.version, format.format(new Date(entry.timeMillis)),
+                    entry.base ? "base" : "delta", entry.bytes, entry.segment.getName());
+            total += entry.bytes;
+        }
+        System.out.printf("%d versions, %d KB%n", entries.size(), total / 1024);
+    }
+
+    private static void restore(File directory, long version, String output) {
+        NeuralNetwork network = CheckpointLog.load(directory, version);
+        if (network == null) {
+            List<CheckpointLog.Entry> entries = CheckpointLog.list(directory);
+            if (entries.isEmpty()) {
+                System.err.println("No checkpoints in " + directory);
+                System.exit(1);
+            }
+            long first = entries.get(0).version;
+            long last = entries.get(entries.size() - 1).version;
+            long nearest = nearest(entries, version);
+            if (nearest == version) {
+                System.err.println("Version " + version + " is listed in " + directory + " but could not be read");
+            } else if (version > first && version < last) {
+                System.err.println("Version " + version + " was compacted away; the nearest surviving version is " + nearest);
+            } else {
+                System.err.println("Version " + version + " is not in " + directory + " (versions " + first + " to " + last + ")");
+            }
+            System.exit(1);
+        }
+        network.save(output);
+        System.out.println("Restored version " + version + " to " + output);
+    }
+
+    private static long nearest(List<CheckpointLog.Entry> entries, long version) {
+        long nearest = entries.get(0).version;
+        for (CheckpointLog.Entry entry : entries) {
+            if (Math.abs(entry.version - version) < Math.abs(nearest - version)) {
+                nearest = entry.version;
+            }
+        }
+        return nearest;
+    }
+
+    private static void usage() {
+        System.err.println("usage: CheckpointTool list [dir] | restore <dir> <version> [out] | compact [dir] [maxMegabytes]");
+        System.exit(2);
+    }
+}
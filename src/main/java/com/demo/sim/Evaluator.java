@@ -0,0 +1,234 @@
+package com.demo.sim;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+import com.demo.Arena;
+import com.demo.Match;
+import com.demo.ai.NeuralNetwork;
+import com.demo.ai.TrainingConfig;
+import com.demo.entity.AIPlayer;
+import com.demo.entity.Fighter;
+import com.demo.entity.ScriptedFighter;
+
+public class Evaluator {
+    private static final int ROUNDS_PER_TASK = 25;
+    private static final double EVAL_EPSILON = 0.05;
+    private static final double Z_95 = 1.96;
+    private static final TrainingConfig config = new TrainingConfig();
+
+    static class Checkpoint {
+        final String name;
+        final NeuralNetwork network;
+
+        Checkpoint(String name, NeuralNetwork network) {
+            this.name = name;
+            this.network = network;
+        }
+    }
+
+    static class Result {
+        final Checkpoint checkpoint;
+        final String opponent;
+        final Checkpoint rival;
+        int rounds;
+        int wins;
+        int draws;
+        long damageDealt;
+        long damageTaken;
+        long ticks;
+
+        Result(Checkpoint checkpoint, String opponent, Checkpoint rival) {
+            this.checkpoint = checkpoint;
+            this.opponent = opponent;
+            this.rival = rival;
+        }
+
+        synchronized void add(int rounds, int wins, int draws, long damageDealt, long damageTaken, long ticks) {
+            this.rounds += rounds;
+            this.wins += wins;
+            this.draws += draws;
+            this.damageDealt += damageDealt;
+            this.damageTaken += damageTaken;
+            this.ticks += ticks;
+        }
+
+        double winRate() {
+            return rounds == 0 ? 0 : (double) wins / rounds;
+        }
+
+        double lower() {
+            return wilson(-1);
+        }
+
+        double upper() {
+            return wilson(1);
+        }
+
+        private double wilson(int sign) {
+            if (rounds == 0) return sign < 0 ? 0 : 1;
+            double p = winRate();
+            double z2 = Z_95 * Z_95;
+            double centre = p + z2 / (2.0 * rounds);
+            double margin = Z_95 * Math.sqrt(p * (1 - p) / rounds + z2 / (4.0 * rounds * rounds));
+            return (centre + sign * margin) / (1 + z2 / rounds);
+        }
+    }
+
+    private final List<Checkpoint> checkpoints;
+    private final int rounds;
+    private final long seed;
+
+    public Evaluator(List<Checkpoint> checkpoints, int rounds, long seed) {
+        this.checkpoints = checkpoints;
+        this.rounds = rounds;
+        this.seed = seed;
+    }
+
+    public static void main(String[] args) {
+        if (args.length == 0) {
+            System.err.println("usage: Evaluator <candidate.dat> [baseline.dat] [other.dat ...]");
+            System.exit(2);
+        }
+        int rounds = Integer.getInteger("betterenemy.eval.rounds", 200);
+        long seed = Long.getLong("betterenemy.eval.seed", 1L);
+        double tolerance = Double.parseDouble(System.getProperty("betterenemy.eval.tolerance", "0.02"));
+        int parallelism = Integer.getInteger("betterenemy.eval.parallelism", Runtime.getRuntime().availableProcessors());
+
+        List<Checkpoint> checkpoints = new ArrayList<>();
+        for (String file : args) {
+            NeuralNetwork network = NeuralNetwork.load(file);
+            if (network == null) {
+                System.err.println("Could not load model from " + file);
+                System.exit(2);
+            }
+            int inputSize = config.inputSize(6);
+            if (network.getInputSize() < inputSize) {
+                network = network.withInputSize(inputSize);
+            }
+            checkpoints.add(new Checkpoint(new File(file).getName(), network.frozenCopy()));
+        }
+
+        long start = System.nanoTime();
+        Evaluator evaluator = new Evaluator(checkpoints, rounds, seed);
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        List<Result> results = evaluator.run(pool);
+        pool.shutdown();
+
+        report(results);
+        System.out.printf("%d rounds on %d threads in %.1f s%n",
+                results.stream().mapToInt(r -> r.rounds).sum(), parallelism, (System.nanoTime() - start) / 1e9);
+
+        if (checkpoints.size() > 1 && regressed(results, checkpoints.get(0), checkpoints.get(1), tolerance)) {
+            System.exit(1);
+        }
+    }
+
+    public List<Result> run(ForkJoinPool pool) {
+        List<Result> results = new ArrayList<>();
+        List<ForkJoinTask<?>> tasks = new ArrayList<>();
+        long taskSeed = seed;
+
+        for (Checkpoint checkpoint : checkpoints) {
+            List<Object> opponents = new ArrayList<>();
+            for (ScriptedFighter.Script script : ScriptedFighter.Script.values()) opponents.add(script);
+            for (Checkpoint other : checkpoints) if (other != checkpoint) opponents.add(other);
+
+            for (Object opponent : opponents) {
+                Checkpoint rival = opponent instanceof Checkpoint ? (Checkpoint) opponent : null;
+                Result result = new Result(checkpoint, rival != null ? rival.name : opponent.toString(), rival);
+                results.add(result);
+                for (int played = 0; played < rounds; played += ROUNDS_PER_TASK) {
+                    int count = Math.min(ROUNDS_PER_TASK, rounds - played);
+                    long matchSeed = taskSeed++;
+                    tasks.add(pool.submit(() -> play(result, opponent, count, matchSeed)));
+                }
+            }
+        }
+        for (ForkJoinTask<?> task : tasks) {
+            task.join();
+        }
+        return results;
+    }
+
+    private void play(Result result, Object opponent, int roundCount, long matchSeed) {
+        Arena arena = Arena.standard();
+        AIPlayer ai = new AIPlayer(arena, null, config, result.checkpoint.network);
+        ai.setLearning(false);
+        ai.setSeed(matchSeed);
+        ai.setEpsilon(EVAL_EPSILON);
+
+        Fighter rival;
+        if (opponent instanceof Checkpoint) {
+            AIPlayer rivalAi = new AIPlayer(arena, ai, config, ((Checkpoint) opponent).network);
+            rivalAi.setLearning(false);
+            rivalAi.setSeed(~matchSeed);
+            rivalAi.setEpsilon(EVAL_EPSILON);
+            rivalAi.placeOnLeft();
+            rival = rivalAi;
+        } else {
+            ScriptedFighter bot = new ScriptedFighter(arena, (ScriptedFighter.Script) opponent, matchSeed);
+            bot.setOpponent(ai);
+            rival = bot;
+        }
+        ai.setOpponent(rival);
+
+        Match match = new Match(rival, ai, 0);
+        match.setRoundTimeLimit(HeadlessTrainer.ROUND_TIME_LIMIT);
+
+        int wins = 0, draws = 0;
+        long damageDealt = 0, damageTaken = 0, ticks = 0;
+        for (int round = 0; round < roundCount; ) {
+            match.update();
+            if (!match.isRoundOver()) continue;
+
+            if (match.getLastWinner() == ai) wins++;
+            else if (match.getLastWinner() == null) draws++;
+            damageDealt += 100 - Math.max(0, rival.health);
+            damageTaken += 100 - Math.max(0, ai.health);
+            ticks += match.getRoundTicks();
+            round++;
+            match.update();
+        }
+        result.add(roundCount, wins, draws, damageDealt, damageTaken, ticks);
+    }
+
+    private static void report(List<Result> results) {
+        System.out.printf("%-20s %-20s %7s %17s %6s %8s %8s %8s%n",
+                "checkpoint", "opponent", "win%", "95% CI", "draw%", "dealt", "taken", "ticks");
+        for (Result r : results) {
+            System.out.printf("%-20s %-20s %7.1f   [%5.1f, %5.1f] %6.1f %8.1f %8.1f %8.0f%n",
+                    r.checkpoint.name, r.opponent, 100 * r.winRate(), 100 * r.lower(), 100 * r.upper(),
+                    100.0 * r.draws / r.rounds, (double) r.damageDealt / r.rounds, (double) r.damageTaken / r.rounds,
+                    (double) r.ticks / r.rounds);
+        }
+    }
+
+    private static boolean regressed(List<Result> results, Checkpoint candidate, Checkpoint baseline, double tolerance) {
+        boolean regressed = false;
+        for (Result c : results) {
+            if (c.checkpoint != candidate) continue;
+
+            if (c.rival == baseline) {
+                if (c.upper() < 0.5 - tolerance) {
+                    System.out.printf("REGRESSION: %s loses head-to-head to %s (%.1f%%)%n",
+                            candidate.name, baseline.name, 100 * c.winRate());
+                    regressed = true;
+                }
+                continue;
+            }
+            for (Result b : results) {
+                if (b.checkpoint != baseline || b.rival != c.rival || !b.opponent.equals(c.opponent)) continue;
+                if (c.upper() < b.winRate() - tolerance) {
+                    System.out.printf("REGRESSION: %s vs %s %.1f%% (CI up to %.1f%%), baseline %.1f%%%n",
+                            candidate.name, c.opponent, 100 * c.winRate(), 100 * c.upper(), 100 * b.winRate());
+                    regressed = true;
+                }
+            }
+        }
+        return regressed;
+    }
+}
@@ -0,0 +1,51 @@
+package com.demo.sim;
+
+import com.demo.Arena;
+import com.demo.Match;
+import com.demo.ai.NeuralNetwork;
+import com.demo.ai.TrainingConfig;
+import com.demo.entity.AIPlayer;
+import com.demo.entity.ScriptedFighter;
+
+public class HeadlessTrainer {
+    public static final int ROUND_TIME_LIMIT = 60 * 60;
+
+    public static long train(NeuralNetwork network, TrainingConfig config, ScriptedFighter.Script opponent,
+                             long seed, long tickBudget, long deadlineNanos) {
+        Arena arena = Arena.standard();
+        ScriptedFighter bot = new ScriptedFighter(arena, opponent, seed);
+        AIPlayer ai = new AIPlayer(arena, bot, config, network);
+        bot.setOpponent(ai);
+
+        Match match = new Match(bot, ai, 0);
+        match.setRoundTimeLimit(ROUND_TIME_LIMIT);
+
+        long ticks = 0;
+        while (ticks < tickBudget) {
+            match.update();
+            ticks++;
+            if ((ticks & 1023) == 0 && System.nanoTime() >= deadlineNanos) {
+                break;
+            }
+        }
+        return ticks;
+    }
+
+    public static double winRate(NeuralNetwork network, TrainingConfig config, ScriptedFighter.Script opponent,
+                                 int rounds, long seed) {
+        Arena arena = Arena.standard();
+        ScriptedFighter bot = new ScriptedFighter(arena, opponent, seed);
+        AIPlayer ai = new AIPlayer(arena, bot, config, network);
+        ai.setLearning(false);
+        ai.setEpsilon(0);
+        bot.setOpponent(ai);
+
+        Match match = new Match(bot, ai, 0);
+        match.setRoundTimeLimit(ROUND_TIME_LIMIT);
+
+        while (ai.getRounds() < rounds) {
+            match.update();
+        }
+        return (double) ai.getWins() / rounds;
+    }
+}
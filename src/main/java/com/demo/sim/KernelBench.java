@@ -0,0 +1,54 @@
+package com.demo.sim;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import com.demo.ai.InferenceContext;
+import com.demo.ai.NeuralNetwork;
+
+public class KernelBench {
+    public static void main(String[] args) {
+        int steps = args.length > 0 ? Integer.parseInt(args[0]) : 200;
+        int layers = args.length > 1 ? Integer.parseInt(args[1]) : 2;
+        int[] widths = { 64, 256, 1024, 2048, 4096 };
+
+        System.out.printf("Fork/join parallelism %d, threshold %s MACs per layer%n", ForkJoinPool.commonPool().getParallelism(),
+                System.getProperty("betterenemy.kernel.parallelThreshold", String.valueOf(1 << 16)));
+        System.out.printf("%8s %12s %14s %14s%n", "hidden", "params", "forward us", "learn us");
+        for (int width : widths) {
+            int[] sizes = new int[layers + 2];
+            sizes[0] = 24;
+            for (int l = 1; l <= layers; l++) {
+                sizes[l] = width;
+            }
+            sizes[layers + 1] = 6;
+            NeuralNetwork network = new NeuralNetwork(sizes, 0.001);
+            NeuralNetwork target = network.copy();
+            InferenceContext inference = network.newContext();
+
+            Random random = new Random(1);
+            double[] state = new double[sizes[0]];
+            double[] nextState = new double[sizes[0]];
+            int warmup = Math.max(10, steps / 5);
+            long forwardNanos = 0;
+            long learnNanos = 0;
+            for (int i = 0; i < warmup + steps; i++) {
+                for (int j = 0; j < state.length; j++) {
+                    state[j] = random.nextGaussian();
+                    nextState[j] = random.nextGaussian();
+                }
+                long start = System.nanoTime();
+                network.forward(inference, state);
+                long forwarded = System.nanoTime();
+                network.learn(state, i % 6, random.nextGaussian(), nextState, 0.95, false, target);
+                long learned = System.nanoTime();
+                if (i >= warmup) {
+                    forwardNanos += forwarded - start;
+                    learnNanos += learned - forwarded;
+                }
+            }
+            System.out.printf("%8d %12d %14.1f %14.1f%n", width, network.getParameterCount(),
+                    forwardNanos / 1e3 / steps, learnNanos / 1e3 / steps);
+        }
+    }
+}
@@ -0,0 +1,221 @@
+package com.demo.sim;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+import com.demo.Arena;
+import com.demo.Match;
+import com.demo.ai.NeuralNetwork;
+import com.demo.ai.TrainingConfig;
+import com.demo.entity.AIPlayer;
+
+public class League {
+    private static final double INITIAL_ELO = 1000;
+    private static final double ELO_K = 16;
+    private static final double FROZEN_EPSILON = 0.05;
+
+    static class Agent {
+        final String name;
+        NeuralNetwork network;
+        TrainingConfig config;
+        double epsilon;
+        double elo = INITIAL_ELO;
+        boolean frozen;
+
+        Agent(String name, NeuralNetwork network, TrainingConfig config, boolean frozen) {
+            this.name = name;
+            this.network = network;
+            this.config = config;
+            this.epsilon = config.epsilon;
+            this.frozen = frozen;
+        }
+    }
+
+    static class Pairing {
+        final Agent learner;
+        final Agent opponent;
+        final NeuralNetwork opponentSnapshot;
+        int learnerWins;
+        int opponentWins;
+
+        Pairing(Agent learner, Agent opponent) {
+            this.learner = learner;
+            this.opponent = opponent;
+            this.opponentSnapshot = opponent.frozen ? opponent.network : opponent.network.frozenCopy();
+        }
+    }
+
+    private final List<Agent> learners = new ArrayList<>();
+    private final List<Agent> pool = new ArrayList<>();
+    private final Random random;
+    private final int roundsPerMatch;
+    private final int freezeInterval;
+    private final int exploitInterval;
+    private final File outputDir;
+
+    public League(int populationSize, long seed, int roundsPerMatch, int freezeInterval, int exploitInterval, File outputDir) {
+        if (populationSize < 1) {
+            throw new IllegalArgumentException("population size must be positive: " + populationSize);
+        }
+        this.random = new Random(seed);
+        this.roundsPerMatch = roundsPerMatch;
+        this.freezeInterval = freezeInterval;
+        this.exploitInterval = exploitInterval;
+        this.outputDir = outputDir;
+
+        for (int i = 0; i < populationSize; i++) {
+            TrainingConfig config = perturb(new TrainingConfig());
+            learners.add(new Agent("learner-" + i, config.newNetwork(6), config, false));
+        }
+
+        NeuralNetwork shipped = NeuralNetwork.load("ai_brain.dat");
+        if (shipped != null) {
+            pool.add(new Agent("ai_brain", shipped.frozenCopy(), new TrainingConfig(), true));
+        }
+        if (learners.size() < 2 && pool.isEmpty()) {
+            throw new IllegalArgumentException("a single learner needs ai_brain.dat as its first opponent");
+        }
+    }
+
+    public static void main(String[] args) {
+        int populationSize = args.length > 0 ? Integer.parseInt(args[0]) : 8;
+        int generations = args.length > 1 ? Integer.parseInt(args[1]) : 50;
+        int roundsPerMatch = args.length > 2 ? Integer.parseInt(args[2]) : 10;
+        long seed = args.length > 3 ? Long.parseLong(args[3]) : 1L;
+
+        League league = new League(populationSize, seed, roundsPerMatch, 5, 10, new File("league"));
+        ForkJoinPool executor = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+        for (int generation = 1; generation <= generations; generation++) {
+            league.playGeneration(generation, executor);
+        }
+        executor.shutdown();
+        league.saveChampion();
+    }
+
+    public void playGeneration(int generation, ForkJoinPool executor) {
+        List<Pairing> pairings = new ArrayList<>();
+        for (Agent learner : learners) {
+            pairings.add(new Pairing(learner, pickOpponent(learner)));
+        }
+
+        List<ForkJoinTask<?>> tasks = new ArrayList<>();
+        for (Pairing pairing : pairings) {
+            long matchSeed = random.nextLong();
+            tasks.add(executor.submit(() -> play(pairing, matchSeed)));
+        }
+        for (ForkJoinTask<?> task : tasks) {
+            task.join();
+        }
+
+        for (Pairing pairing : pairings) {
+            for (int i = 0; i < pairing.learnerWins; i++) updateElo(pairing.learner, pairing.opponent);
+            for (int i = 0; i < pairing.opponentWins; i++) updateElo(pairing.opponent, pairing.learner);
+        }
+
+        if (generation % freezeInterval == 0) {
+            freezeStrongest(generation);
+        }
+        if (generation % exploitInterval == 0) {
+            exploitWeakest();
+        }
+        printStandings(generation);
+    }
+
+    private Agent pickOpponent(Agent learner) {
+        if (!pool.isEmpty() && (learners.size() < 2 || random.nextBoolean())) {
+            return pool.get(random.nextInt(pool.size()));
+        }
+        Agent opponent;
+        do {
+            opponent = learners.get(random.nextInt(learners.size()));
+        } while (opponent == learner);
+        return opponent;
+    }
+
+    private void play(Pairing pairing, long seed) {
+        Arena arena = Arena.standard();
+        Agent agent = pairing.learner;
+
+        AIPlayer frozen = new AIPlayer(arena, null, pairing.opponent.config, pairing.opponentSnapshot);
+        frozen.setLearning(false);
+        frozen.setSeed(seed);
+        frozen.setEpsilon(FROZEN_EPSILON);
+        frozen.placeOnLeft();
+
+        AIPlayer learner = new AIPlayer(arena, frozen, agent.config, agent.network);
+        learner.setEpsilon(agent.epsilon);
+        frozen.setOpponent(learner);
+
+        Match match = new Match(frozen, learner, 0);
+        match.setRoundTimeLimit(HeadlessTrainer.ROUND_TIME_LIMIT);
+        while (learner.getRounds() < roundsPerMatch) {
+            match.update();
+        }
+
+        agent.epsilon = learner.getEpsilon();
+        pairing.learnerWins = learner.getWins();
+        pairing.opponentWins = frozen.getWins();
+    }
+
+    private void updateElo(Agent winner, Agent loser) {
+        double expected = 1.0 / (1.0 + Math.pow(10, (loser.elo - winner.elo) / 400.0));
+        winner.elo += ELO_K * (1 - expected);
+        loser.elo -= ELO_K * (1 - expected);
+    }
+
+    private void freezeStrongest(int generation) {
+        Agent strongest = learners.stream().max(Comparator.comparingDouble(a -> a.elo)).orElseThrow();
+        Agent frozen = new Agent(strongest.name + "@" + generation, strongest.network.frozenCopy(), strongest.config.copy(), true);
+        frozen.elo = strongest.elo;
+        pool.add(frozen);
+
+        outputDir.mkdirs();
+        frozen.network.save(new File(outputDir, frozen.name + ".dat").getPath());
+        System.out.printf("Froze %s into the opponent pool (elo %.0f)%n", frozen.name, frozen.elo);
+    }
+
+    private void exploitWeakest() {
+        Agent strongest = learners.stream().max(Comparator.comparingDouble(a -> a.elo)).orElseThrow();
+        Agent weakest = learners.stream().min(Comparator.comparingDouble(a -> a.elo)).orElseThrow();
+        if (strongest == weakest) return;
+
+        weakest.network = strongest.network.copy();
+        weakest.config = perturb(strongest.config);
+        weakest.epsilon = strongest.epsilon;
+        weakest.elo = strongest.elo;
+        System.out.printf("%s copied weights from %s (%s)%n", weakest.name, strongest.name, weakest.config);
+    }
+
+    private TrainingConfig perturb(TrainingConfig base) {
+        TrainingConfig config = base.copy();
+        config.learningRate *= random.nextBoolean() ? 0.8 : 1.25;
+        config.gamma = Math.min(0.995, Math.max(0.8, config.gamma + (random.nextDouble() - 0.5) * 0.04));
+        config.epsilonDecay = Math.min(0.999, Math.max(0.95, config.epsilonDecay + (random.nextDouble() - 0.5) * 0.01));
+        return config;
+    }
+
+    private void printStandings(int generation) {
+        List<Agent> all = new ArrayList<>(learners);
+        all.addAll(pool);
+        all.sort(Comparator.comparingDouble((Agent a) -> a.elo).reversed());
+
+        System.out.printf("Generation %d%n", generation);
+        for (int i = 0; i < Math.min(all.size(), 10); i++) {
+            Agent a = all.get(i);
+            System.out.printf("  %2d. %-20s %7.1f %s%n", i + 1, a.name, a.elo, a.frozen ? "frozen" : "learner");
+        }
+    }
+
+    public void saveChampion() {
+        Agent champion = learners.stream().max(Comparator.comparingDouble(a -> a.elo)).orElseThrow();
+        outputDir.mkdirs();
+        File file = new File(outputDir, "champion.dat");
+        champion.network.save(file.getPath());
+        System.out.printf("Champion %s (elo %.0f) saved to %s%n", champion.name, champion.elo, file);
+    }
+}
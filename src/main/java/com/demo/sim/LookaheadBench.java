@@ -0,0 +1,56 @@
+package com.demo.sim;
+
+import com.demo.Arena;
+import com.demo.Match;
+import com.demo.ai.NeuralNetwork;
+import com.demo.ai.TrainingConfig;
+import com.demo.entity.AIPlayer;
+import com.demo.entity.LookaheadPlanner;
+import com.demo.entity.ScriptedFighter;
+
+public class LookaheadBench {
+    public static void main(String[] args) {
+        int rounds = args.length > 0 ? Integer.parseInt(args[0]) : 50;
+        int threads = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+        int depth = args.length > 2 ? Integer.parseInt(args[2]) : 6;
+        int beam = args.length > 3 ? Integer.parseInt(args[3]) : 4;
+        long[] budgetsMicros = { 0, 500, 2000, 8000 };
+
+        NeuralNetwork brain = NeuralNetwork.load("ai_brain.dat");
+        if (brain == null) {
+            System.err.println("Could not load ai_brain.dat");
+            System.exit(1);
+        }
+
+        System.out.printf("%-8s %10s %8s %12s %12s %10s%n", "opponent", "budget us", "win", "mean us", "max us", "depth");
+        for (ScriptedFighter.Script script : ScriptedFighter.Script.values()) {
+            for (long budget : budgetsMicros) {
+                LookaheadPlanner planner = budget > 0 ? new LookaheadPlanner(Arena.standard(), depth, beam, budget * 1000, threads) : null;
+                double winRate = play(brain.frozenCopy(), script, planner, rounds);
+                System.out.printf("%-8s %10s %8.2f %12.1f %12.1f %10.2f%n", script, budget > 0 ? String.valueOf(budget) : "reactive",
+                        winRate, planner != null ? planner.getMeanPlanMicros() : 0, planner != null ? planner.getMaxPlanMicros() : 0,
+                        planner != null ? planner.getMeanDepth() : 0);
+                if (planner != null) {
+                    planner.close();
+                }
+            }
+        }
+    }
+
+    private static double play(NeuralNetwork network, ScriptedFighter.Script script, LookaheadPlanner planner, int rounds) {
+        Arena arena = Arena.standard();
+        ScriptedFighter bot = new ScriptedFighter(arena, script, 1L);
+        AIPlayer ai = new AIPlayer(arena, bot, new TrainingConfig(), network);
+        ai.setLearning(false);
+        ai.setEpsilon(0);
+        ai.setPlanner(planner);
+        bot.setOpponent(ai);
+
+        Match match = new Match(bot, ai, 0);
+        match.setRoundTimeLimit(HeadlessTrainer.ROUND_TIME_LIMIT);
+        while (ai.getRounds() < rounds) {
+            match.update();
+        }
+        return (double) ai.getWins() / rounds;
+    }
+}
@@ -0,0 +1,274 @@
+package com.demo.sim;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+import com.demo.Arena;
+import com.demo.Match;
+import com.demo.ai.NeuralNetwork;
+import com.demo.ai.TrainingConfig;
+import com.demo.entity.AIPlayer;
+import com.demo.entity.Difficulty;
+import com.demo.entity.ScriptedFighter;
+
+public class MatchServer implements AutoCloseable {
+    private static final int BUCKETS = 40;
+
+    private final ExecutorService executor;
+    private final boolean virtualThreads;
+    private final Semaphore admission;
+    private final long periodNanos;
+    private volatile boolean running = true;
+
+    private final AtomicInteger active = new AtomicInteger();
+    private final LongAdder ticks = new LongAdder();
+    private final LongAdder completed = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder cancelled = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final AtomicLongArray lateness = new AtomicLongArray(BUCKETS);
+    private final LongAccumulator maxLateness = new LongAccumulator(Math::max, 0);
+
+    public MatchServer(int maxMatches, int tickRate) {
+        if (maxMatches < 1 || tickRate < 1) {
+            throw new IllegalArgumentException("admission limit and tick rate must be positive");
+        }
+        this.admission = new Semaphore(maxMatches);
+        this.periodNanos = 1_000_000_000L / tickRate;
+
+        ExecutorService virtual = null;
+        try {
+            virtual = (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException | UnsupportedOperationException e) {
+            virtual = null;
+        }
+        this.virtualThreads = virtual != null;
+        if (virtual != null) {
+            this.executor = virtual;
+        } else {
+            AtomicInteger threadIndex = new AtomicInteger();
+            this.executor = Executors.newCachedThreadPool(r -> {
+                Thread thread = new Thread(null, r, "match-" + threadIndex.incrementAndGet(), 256 << 10);
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+
+    public boolean isVirtualThreads() { return virtualThreads; }
+    public int getActive() { return active.get(); }
+    public long getTicks() { return ticks.sum(); }
+    public long getCompleted() { return completed.sum(); }
+    public long getFailed() { return failed.sum(); }
+    public long getCancelled() { return cancelled.sum(); }
+    public long getRejected() { return rejected.sum(); }
+    public double getMaxLatenessMillis() { return maxLateness.get() / 1e6; }
+
+    public CompletableFuture<Match> submit(Match match, long tickCount) {
+        CompletableFuture<Match> result = new CompletableFuture<>();
+        if (!running || !admission.tryAcquire()) {
+            rejected.increment();
+            result.completeExceptionally(new RejectedExecutionException("admission limit reached"));
+            return result;
+        }
+        active.incrementAndGet();
+        try {
+            executor.execute(() -> host(match, tickCount, result));
+        } catch (RejectedExecutionException e) {
+            active.decrementAndGet();
+            admission.release();
+            rejected.increment();
+            result.completeExceptionally(e);
+        }
+        return result;
+    }
+
+    private void host(Match match, long tickCount, CompletableFuture<Match> result) {
+        try {
+            long deadline = System.nanoTime();
+            long t = 0;
+            for (; t < tickCount && running; t++) {
+                long now = System.nanoTime();
+                if (deadline - now > 0) {
+                    LockSupport.parkNanos(deadline - now);
+                    now = System.nanoTime();
+                }
+                recordLateness(Math.max(0, now - deadline));
+                match.update();
+                ticks.increment();
+                deadline += periodNanos;
+            }
+            if (t == tickCount) {
+                completed.increment();
+                result.complete(match);
+            } else {
+                cancelled.increment();
+                result.completeExceptionally(new CancellationException(
+                        "server closed after " + t + " of " + tickCount + " ticks"));
+            }
+        } catch (Throwable e) {
+            failed.increment();
+            result.completeExceptionally(e);
+        } finally {
+            active.decrementAndGet();
+            admission.release();
+        }
+    }
+
+    private void recordLateness(long nanos) {
+        long micros = nanos / 1000;
+        int bucket = micros == 0 ? 0 : Math.min(BUCKETS - 1, 64 - Long.numberOfLeadingZeros(micros));
+        lateness.incrementAndGet(bucket);
+        maxLateness.accumulate(nanos);
+    }
+
+    public long[] latenessSnapshot() {
+        long[] counts = new long[BUCKETS];
+        for (int i = 0; i < BUCKETS; i++) {
+            counts[i] = lateness.get(i);
+        }
+        return counts;
+    }
+
+    public static double percentileMillis(long[] before, long[] after, double p) {
+        long total = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            total += after[i] - before[i];
+        }
+        if (total == 0) return 0;
+        long rank = (long) Math.ceil(p * total);
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += after[i] - before[i];
+            if (seen >= rank) {
+                return i == 0 ? 0 : (1L << i) / 1000.0;
+            }
+        }
+        return (1L << (BUCKETS - 1)) / 1000.0;
+    }
+
+    @Override
+    public void close() {
+        running = false;
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(10, TimeUnit.SECONDS)) {
+                executor.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            executor.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    public static void main(String[] args) {
+        int matches = args.length > 0 ? Integer.parseInt(args[0]) : 1000;
+        double seconds = args.length > 1 ? Double.parseDouble(args[1]) : 10;
+        int tickRate = args.length > 2 ? Integer.parseInt(args[2]) : 60;
+        int limit = args.length > 3 ? Integer.parseInt(args[3]) : matches;
+        boolean selfPlay = args.length > 4 && "ai".equals(args[4]);
+
+        NeuralNetwork loaded = NeuralNetwork.load("ai_brain.dat");
+        NeuralNetwork brain = (loaded != null ? loaded : new TrainingConfig().newNetwork(6)).frozenCopy();
+        int inputSize = new TrainingConfig().inputSize(6);
+        if (brain.getInputSize() < inputSize) {
+            brain = brain.withInputSize(inputSize);
+        }
+        ScriptedFighter.Script[] scripts = ScriptedFighter.Script.values();
+        long tickCount = (long) (seconds * tickRate);
+
+        try (MatchServer server = new MatchServer(limit, tickRate)) {
+            if (!server.isVirtualThreads()) {
+                System.err.printf("Java %s has no virtual threads; every match gets its own platform thread%n",
+                        System.getProperty("java.version"));
+                if (Boolean.getBoolean("betterenemy.requireVirtualThreads")) {
+                    System.exit(2);
+                }
+            }
+            System.out.printf("Hosting %d %s matches for %.0f s at %d Hz (limit %d) on %s threads, Java %s%n",
+                    matches, selfPlay ? "AI-vs-AI" : "AI-vs-bot", seconds, tickRate, limit,
+                    server.isVirtualThreads() ? "virtual" : "platform", System.getProperty("java.version"));
+
+            List<CompletableFuture<Match>> results = new ArrayList<>();
+            List<String> labels = new ArrayList<>();
+            for (int i = 0; i < matches; i++) {
+                Arena arena = Arena.standard();
+                AIPlayer ai = new AIPlayer(arena, null, Difficulty.NORMAL, brain);
+                ai.setSeed(i);
+                Match match;
+                if (selfPlay) {
+                    AIPlayer rival = new AIPlayer(arena, ai, Difficulty.NORMAL, brain);
+                    rival.setSeed(~i);
+                    rival.setEpsilon(0.05);
+                    rival.placeOnLeft();
+                    ai.setOpponent(rival);
+                    match = new Match(rival, ai, 60);
+                    labels.add("AI");
+                } else {
+                    ScriptedFighter bot = new ScriptedFighter(arena, scripts[i % scripts.length], i);
+                    bot.setOpponent(ai);
+                    ai.setOpponent(bot);
+                    match = new Match(bot, ai, 60);
+                    labels.add(bot.getScript().name());
+                }
+                match.setRoundTimeLimit(HeadlessTrainer.ROUND_TIME_LIMIT);
+                results.add(server.submit(match, tickCount));
+            }
+
+            long[] window = server.latenessSnapshot();
+            long lastTicks = 0;
+            long lastTime = System.nanoTime();
+            while (server.getActive() > 0) {
+                LockSupport.parkNanos(1_000_000_000L);
+                long now = System.nanoTime();
+                long total = server.getTicks();
+                long[] current = server.latenessSnapshot();
+                System.out.printf("  active %5d  %8.0f ticks/s  lateness p50 %6.2f ms  p99 %7.2f ms  max %8.2f ms%n",
+                        server.getActive(), (total - lastTicks) / ((now - lastTime) / 1e9),
+                        percentileMillis(window, current, 0.50), percentileMillis(window, current, 0.99),
+                        server.getMaxLatenessMillis());
+                window = current;
+                lastTicks = total;
+                lastTime = now;
+            }
+
+            System.out.printf("Completed %d, cancelled %d, failed %d, rejected %d, %d ticks%n",
+                    server.getCompleted(), server.getCancelled(), server.getFailed(), server.getRejected(), server.getTicks());
+            report(results, labels);
+        }
+    }
+
+    private static void report(List<CompletableFuture<Match>> results, List<String> labels) {
+        List<String> names = new ArrayList<>();
+        List<long[]> totals = new ArrayList<>();
+        for (int i = 0; i < results.size(); i++) {
+            if (!results.get(i).isDone() || results.get(i).isCompletedExceptionally()) continue;
+            Match match = results.get(i).join();
+            int index = names.indexOf(labels.get(i));
+            if (index < 0) {
+                names.add(labels.get(i));
+                totals.add(new long[2]);
+                index = names.size() - 1;
+            }
+            totals.get(index)[0] += match.getRightWins();
+            totals.get(index)[1] += match.getLeftWins() + match.getRightWins();
+        }
+        System.out.printf("%-8s %8s %8s%n", "vs", "rounds", "AI win");
+        for (int i = 0; i < names.size(); i++) {
+            long[] t = totals.get(i);
+            System.out.printf("%-8s %8d %8.2f%n", names.get(i), t[1], t[1] == 0 ? 0 : (double) t[0] / t[1]);
+        }
+    }
+}
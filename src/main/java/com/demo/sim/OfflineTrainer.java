@@ -0,0 +1,144 @@
+package com.demo.sim;
+
+import java.io.File;
+import java.util.Random;
+
+import com.demo.Arena;
+import com.demo.Match;
+import com.demo.ai.NeuralNetwork;
+import com.demo.ai.TrainingConfig;
+import com.demo.ai.TransitionDataset;
+import com.demo.ai.TransitionRecorder;
+import com.demo.entity.AIPlayer;
+import com.demo.entity.ScriptedFighter;
+
+public class OfflineTrainer {
+    private static final int EVAL_ROUNDS = 100;
+
+    public static void main(String[] args) {
+        String command = args.length > 0 ? args[0] : "train";
+
+        switch (command) {
+            case "record":
+                record(new File(args.length > 1 ? args[1] : "transitions"),
+                        args.length > 2 ? Integer.parseInt(args[2]) : 500,
+                        args.length > 3 ? Long.parseLong(args[3]) : 1L);
+                break;
+            case "train":
+                train(new File(args.length > 1 ? args[1] : "transitions"),
+                        args.length > 2 ? Integer.parseInt(args[2]) : 3,
+                        args.length > 3 ? Integer.parseInt(args[3]) : 64,
+                        args.length > 4 ? args[4] : "ai_brain.dat",
+                        args.length > 5 ? args[5] : "ai_brain_offline.dat",
+                        args.length > 6 ? Long.parseLong(args[6]) : 1L);
+                break;
+            default:
+                System.err.println("usage: OfflineTrainer record [dir] [rounds] [seed] | train [path] [epochs] [batchSize] [model] [output] [seed]");
+                System.exit(1);
+        }
+    }
+
+    private static void record(File directory, int rounds, long seed) {
+        TrainingConfig config = new TrainingConfig();
+        NeuralNetwork brain = NeuralNetwork.load("ai_brain.dat");
+        ScriptedFighter.Script[] scripts = ScriptedFighter.Script.values();
+        Arena arena = Arena.standard();
+        AIPlayer ai = new AIPlayer(arena, null, config, brain != null ? brain : config.newNetwork(6));
+        ai.setLearning(false);
+        ai.setSeed(seed);
+
+        TransitionRecorder recorder = new TransitionRecorder(directory, ai.getBrain().getInputSize(), 1 << 16, 4096, 256);
+        try (recorder) {
+            ai.setTransitionRecorder(recorder);
+            for (int round = 0; round < rounds; round++) {
+                ScriptedFighter bot = new ScriptedFighter(arena, scripts[round % scripts.length], seed + round);
+                bot.setOpponent(ai);
+                ai.setOpponent(bot);
+                Match match = new Match(bot, ai, 0);
+                match.setRoundTimeLimit(HeadlessTrainer.ROUND_TIME_LIMIT);
+                while (ai.getRounds() <= round) {
+                    match.update();
+                }
+            }
+        }
+        System.out.printf("Recorded %d transitions from %d rounds to %s (%d dropped)%n",
+                recorder.getWritten(), rounds, directory, recorder.getDropped());
+    }
+
+    private static void train(File path, int epochs, int batchSize, String modelFile, String outputFile, long seed) {
+        TransitionDataset data = TransitionDataset.open(path);
+        TrainingConfig config = new TrainingConfig();
+        NeuralNetwork network = NeuralNetwork.load(modelFile);
+        if (network == null) {
+            network = config.newNetwork(data.getInputSize(), 6);
+        }
+        if (network.getInputSize() < data.getInputSize()) {
+            network = network.withInputSize(data.getInputSize());
+        } else if (network.getInputSize() > data.getInputSize()) {
+            System.err.println("Dataset has " + data.getInputSize() + " inputs but the model needs " + network.getInputSize());
+            System.exit(1);
+        }
+        System.out.printf("Dataset: %d transitions in %d blocks, %d inputs%n", data.size(), data.getBlockCount(), data.getInputSize());
+        System.out.printf("Before: win rate %.2f vs CHASER%n",
+                HeadlessTrainer.winRate(network.copy(), config, ScriptedFighter.Script.CHASER, EVAL_ROUNDS, seed));
+
+        NeuralNetwork target = network.copy();
+        Random random = new Random(seed);
+        int[] order = new int[data.getBlockCount()];
+        int[] rows = new int[0];
+        double[] state = new double[data.getInputSize()];
+        double[] nextState = new double[data.getInputSize()];
+
+        for (int epoch = 1; epoch <= epochs; epoch++) {
+            long start = System.nanoTime();
+            for (int b = 0; b < order.length; b++) {
+                order[b] = b;
+            }
+            shuffle(order, order.length, random);
+
+            long samples = 0;
+            double absTd = 0;
+            for (int b : order) {
+                int n = data.getBlockSize(b);
+                if (rows.length < n) {
+                    rows = new int[n];
+                }
+                for (int r = 0; r < n; r++) {
+                    rows[r] = r;
+                }
+                shuffle(rows, n, random);
+
+                for (int i = 0; i < n; i++) {
+                    int row = rows[i];
+                    data.getState(b, row, state);
+                    data.getNextState(b, row, nextState);
+                    double td = network.learn(state, data.getAction(b, row), data.getReward(b, row), nextState,
+                            config.gamma, data.isDone(b, row), target);
+                    absTd += Math.abs(td);
+                    if (++samples % batchSize == 0) {
+                        target.copyWeightsFrom(network);
+                    }
+                }
+            }
+            target.copyWeightsFrom(network);
+
+            double seconds = (System.nanoTime() - start) / 1e9;
+            System.out.printf("Epoch %d: %d samples, mean |TD| %.4f, %.0f samples/s%n",
+                    epoch, samples, absTd / Math.max(1, samples), samples / seconds);
+        }
+
+        System.out.printf("After: win rate %.2f vs CHASER%n",
+                HeadlessTrainer.winRate(network.copy(), config, ScriptedFighter.Script.CHASER, EVAL_ROUNDS, seed));
+        network.save(outputFile);
+        System.out.println("Saved " + outputFile);
+    }
+
+    private static void shuffle(int[] values, int length, Random random) {
+        for (int i = length - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int swap = values[i];
+            values[i] = values[j];
+            values[j] = swap;
+        }
+    }
+}
@@ -0,0 +1,179 @@
+package com.demo.sim;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import com.demo.Arena;
+import com.demo.Match;
+import com.demo.ai.NeuralNetwork;
+import com.demo.ai.ParameterClient;
+import com.demo.ai.ParameterServer;
+import com.demo.ai.TrainingConfig;
+import com.demo.entity.AIPlayer;
+import com.demo.entity.ScriptedFighter;
+
+public class ParameterTrainer {
+    private static final int MAX_STALENESS = 8;
+
+    public static void main(String[] args) throws InterruptedException {
+        String command = args.length > 0 ? args[0] : "check";
+
+        switch (command) {
+            case "server":
+                serve(args.length > 1 ? Integer.parseInt(args[1]) : 7420,
+                        args.length > 2 ? Integer.parseInt(args[2]) : MAX_STALENESS);
+                break;
+            case "worker":
+                if (args.length < 2) usage();
+                String[] address = args[1].split(":");
+                ParameterClient.Encoding encoding = args.length > 2 ? ParameterClient.Encoding.valueOf(args[2]) : ParameterClient.Encoding.FP16;
+                int syncRounds = args.length > 3 ? Integer.parseInt(args[3]) : 5;
+                long seed = args.length > 4 ? Long.parseLong(args[4]) : ProcessHandle.current().pid();
+                try (ParameterClient client = new ParameterClient(address[0], Integer.parseInt(address[1]), encoding, 0.05, 1000)) {
+                    work(client, syncRounds, seed, Integer.MAX_VALUE, true);
+                }
+                break;
+            case "check":
+                System.exit(check() ? 0 : 1);
+                break;
+            default:
+                usage();
+        }
+    }
+
+    private static void usage() {
+        System.err.println("usage: ParameterTrainer server [port] [maxStaleness] | worker <host:port> [DENSE|FP16|TOP_K] [syncRounds] [seed] | check");
+        System.exit(1);
+    }
+
+    private static NeuralNetwork template() {
+        TrainingConfig config = new TrainingConfig();
+        NeuralNetwork brain = NeuralNetwork.load("ai_brain.dat");
+        if (brain == null) {
+            brain = config.newNetwork(6);
+        }
+        int inputSize = config.inputSize(6);
+        return brain.getInputSize() < inputSize ? brain.withInputSize(inputSize) : brain;
+    }
+
+    private static void serve(int port, int maxStaleness) throws InterruptedException {
+        try (ParameterServer server = new ParameterServer(template(), "0.0.0.0", port, maxStaleness).start()) {
+            System.out.println("Parameter server listening on port " + server.getPort());
+            while (true) {
+                Thread.sleep(10_000);
+                System.out.printf("version %d  applied %d  stale %d  pulls %d  in %d KB  out %d KB%n",
+                        server.getVersion(), server.getApplied(), server.getStale(), server.getPulls(),
+                        server.getBytesIn() >> 10, server.getBytesOut() >> 10);
+            }
+        }
+    }
+
+    private static AIPlayer work(ParameterClient client, int syncRounds, long seed, int rounds, boolean verbose) {
+        Arena arena = Arena.standard();
+        ScriptedFighter bot = new ScriptedFighter(arena, ScriptedFighter.Script.CHASER, seed);
+        AIPlayer ai = new AIPlayer(arena, bot, new TrainingConfig(), template());
+        ai.setSeed(seed);
+        bot.setOpponent(ai);
+        ai.setWeightSync(client, syncRounds);
+
+        Match match = new Match(bot, ai, 0);
+        match.setRoundTimeLimit(HeadlessTrainer.ROUND_TIME_LIMIT);
+        int reported = 0;
+        while (ai.getRounds() < rounds) {
+            match.update();
+            if (verbose && ai.getRounds() != reported && ai.getRounds() % 50 == 0) {
+                reported = ai.getRounds();
+                System.out.printf("rounds %d  wins %d  version %d  pushes %d  stale %d  sent %d KB%n", reported,
+                        ai.getWins(), client.getVersion(), client.getPushes(), client.getStale(), client.getBytesSent() >> 10);
+            }
+        }
+        return ai;
+    }
+
+    private static boolean check() throws InterruptedException {
+        boolean ok = true;
+        NeuralNetwork initial = template();
+        try (ParameterServer server = new ParameterServer(initial, "127.0.0.1", 0, MAX_STALENESS).start()) {
+            int port = server.getPort();
+            ParameterClient.Encoding[] encodings = ParameterClient.Encoding.values();
+            ParameterClient[] clients = new ParameterClient[encodings.length];
+            List<Thread> workers = new ArrayList<>();
+            for (int i = 0; i < encodings.length; i++) {
+                ParameterClient client = new ParameterClient("127.0.0.1", port, encodings[i], 0.05, 1000);
+                clients[i] = client;
+                long seed = i + 1;
+                Thread worker = new Thread(() -> work(client, 5, seed, 200, false), "worker-" + encodings[i]);
+                workers.add(worker);
+                worker.start();
+            }
+            for (Thread worker : workers) {
+                worker.join();
+            }
+
+            for (int i = 0; i < clients.length; i++) {
+                System.out.printf("%-6s pushes %3d  stale %2d  sent %7d B (%d B/push)%n", encodings[i], clients[i].getPushes(),
+                        clients[i].getStale(), clients[i].getBytesSent(), clients[i].getBytesSent() / Math.max(1, clients[i].getPushes()));
+            }
+            System.out.printf("server version %d  applied %d  stale %d  in %d B  out %d B%n", server.getVersion(),
+                    server.getApplied(), server.getStale(), server.getBytesIn(), server.getBytesOut());
+
+            ok &= expect(server.getApplied() + server.getStale() == clients[0].getPushes() + clients[1].getPushes() + clients[2].getPushes(),
+                    "every push was answered");
+            ok &= expect(server.getVersion() == server.getApplied(), "version counts applied pushes");
+            ok &= expect(clients[2].getBytesSent() < clients[1].getBytesSent()
+                    && clients[1].getBytesSent() < clients[0].getBytesSent(), "top-k < fp16 < dense on the wire");
+
+            NeuralNetwork trained = server.snapshot();
+            ok &= expect(changed(initial, trained), "server weights moved and stayed finite");
+
+            NeuralNetwork pulled = initial.copy();
+            clients[0].pull(pulled);
+            ok &= expect(same(pulled, trained), "pull returns the server weights");
+
+            NeuralNetwork lagging = initial.copy();
+            try (ParameterClient late = new ParameterClient("127.0.0.1", port, ParameterClient.Encoding.DENSE, 1, 1000)) {
+                late.pull(lagging);
+                for (int n = 0; n <= MAX_STALENESS; n++) {
+                    clients[0].pull(pulled);
+                    clients[0].push(pulled);
+                }
+                long staleBefore = server.getStale();
+                late.push(lagging);
+                ok &= expect(server.getStale() == staleBefore + 1 && late.getStale() == 1, "stale push is rejected");
+            }
+
+            for (ParameterClient client : clients) {
+                client.close();
+            }
+        }
+        System.out.println(ok ? "OK" : "FAILED");
+        return ok;
+    }
+
+    private static boolean expect(boolean condition, String description) {
+        System.out.println((condition ? "  pass  " : "  FAIL  ") + description);
+        return condition;
+    }
+
+    private static boolean changed(NeuralNetwork before, NeuralNetwork after) {
+        double[] a = new double[before.getParameterCount()];
+        double[] b = new double[after.getParameterCount()];
+        before.getParameters(a);
+        after.getParameters(b);
+        boolean moved = false;
+        for (int i = 0; i < a.length; i++) {
+            if (!Double.isFinite(b[i])) return false;
+            moved |= a[i] != b[i];
+        }
+        return moved;
+    }
+
+    private static boolean same(NeuralNetwork x, NeuralNetwork y) {
+        double[] a = new double[x.getParameterCount()];
+        double[] b = new double[y.getParameterCount()];
+        x.getParameters(a);
+        y.getParameters(b);
+        return Arrays.equals(a, b);
+    }
+}
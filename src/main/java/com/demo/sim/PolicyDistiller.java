@@ -0,0 +1,103 @@
+package com.demo.sim;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import com.demo.Arena;
+import com.demo.Match;
+import com.demo.ai.InferenceContext;
+import com.demo.ai.LookupTablePolicy;
+import com.demo.ai.NeuralNetwork;
+import com.demo.entity.AIPlayer;
+import com.demo.entity.Difficulty;
+import com.demo.entity.ScriptedFighter;
+
+public class PolicyDistiller {
+    private static final double SAMPLING_EPSILON = 0.1;
+    private static final double HOLDOUT_FRACTION = 0.2;
+
+    public static void main(String[] args) {
+        String modelFile = args.length > 0 ? args[0] : "ai_brain.dat";
+        String policyFile = args.length > 1 ? args[1] : "ai_policy.dat";
+        int sampleCount = args.length > 2 ? Integer.parseInt(args[2]) : 200_000;
+        long seed = args.length > 3 ? Long.parseLong(args[3]) : 1L;
+
+        NeuralNetwork teacher = NeuralNetwork.load(modelFile);
+        if (teacher == null) {
+            System.err.println("Could not load model from " + modelFile);
+            System.exit(1);
+        }
+
+        List<double[]> samples = sampleStates(teacher, sampleCount, seed);
+        Collections.shuffle(samples, new Random(seed));
+        int holdoutSize = (int) (samples.size() * HOLDOUT_FRACTION);
+        List<double[]> holdout = samples.subList(0, holdoutSize);
+        List<double[]> training = samples.subList(holdoutSize, samples.size());
+
+        LookupTablePolicy policy = LookupTablePolicy.forAIState();
+        int visited = policy.fit(teacher, training);
+
+        System.out.printf("Samples: %d training, %d holdout%n", training.size(), holdout.size());
+        System.out.printf("Cells: %d visited of %d (%.1f%%), table %d KB%n",
+                visited, policy.getCellCount(), 100.0 * visited / policy.getCellCount(), policy.getCellCount() / 1024);
+        System.out.printf("Agreement: %.2f%% training, %.2f%% holdout%n",
+                100 * policy.agreement(teacher, training), 100 * policy.agreement(teacher, holdout));
+        long[] checksum = new long[1];
+        System.out.printf("Decision cost: %.1f ns table, %.1f ns network (checksum %d)%n",
+                tableNanos(policy, holdout, checksum), networkNanos(teacher, holdout, checksum), checksum[0]);
+
+        policy.save(policyFile);
+        System.out.println("Saved " + policyFile);
+    }
+
+    static List<double[]> sampleStates(NeuralNetwork teacher, int sampleCount, long seed) {
+        List<double[]> samples = new ArrayList<>(sampleCount);
+        ScriptedFighter.Script[] scripts = ScriptedFighter.Script.values();
+        Arena arena = Arena.standard();
+
+        for (int s = 0; samples.size() < sampleCount; s++) {
+            ScriptedFighter bot = new ScriptedFighter(arena, scripts[s % scripts.length], seed + s);
+            AIPlayer ai = new AIPlayer(arena, bot, Difficulty.NORMAL, teacher);
+            ai.setLearning(false);
+            ai.setEpsilon(SAMPLING_EPSILON);
+            bot.setOpponent(ai);
+
+            Match match = new Match(bot, ai, 0);
+            int quota = Math.min(sampleCount, samples.size() + sampleCount / (scripts.length * 4) + 1);
+            while (samples.size() < quota) {
+                match.update();
+                if (!match.isRoundOver()) {
+                    samples.add(ai.getState());
+                }
+            }
+        }
+        return samples;
+    }
+
+    private static double tableNanos(LookupTablePolicy policy, List<double[]> states, long[] checksum) {
+        int sink = 0;
+        long start = System.nanoTime();
+        for (int rep = 0; rep < 10; rep++) {
+            for (double[] state : states) {
+                sink += policy.selectAction(state);
+            }
+        }
+        long elapsed = System.nanoTime() - start;
+        checksum[0] += sink;
+        return (double) elapsed / (10.0 * Math.max(1, states.size()));
+    }
+
+    private static double networkNanos(NeuralNetwork teacher, List<double[]> states, long[] checksum) {
+        InferenceContext inference = teacher.newContext();
+        int sink = 0;
+        long start = System.nanoTime();
+        for (double[] state : states) {
+            sink += inference.selectAction(teacher.forward(inference, state), 0);
+        }
+        long elapsed = System.nanoTime() - start;
+        checksum[0] += sink;
+        return (double) elapsed / Math.max(1, states.size());
+    }
+}
@@ -0,0 +1,307 @@
+package com.demo.sim;
+
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.lang.management.ManagementFactory;
+import java.lang.reflect.InvocationTargetException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import javax.swing.JFrame;
+import javax.swing.SwingUtilities;
+
+import com.demo.GamePanel;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+public class ScenarioRunner {
+    private static final int FPS = 60;
+    private static final Pattern NUMBER = Pattern.compile("\"([a-z0-9_]+)\"\\s*:\\s*(-?[0-9][0-9.eE+-]*)");
+    private static final String[][] CHECKS = {
+        { "frame_p50_ms", "0.15", "0.05" },
+        { "frame_p99_ms", "0.25", "0.2" },
+        { "gc_pause_total_ms", "0.5", "10" },
+        { "alloc_frame_bytes", "0.1", "16" },
+        { "alloc_mb_per_s", "0.25", "1" },
+        { "learn_mean_us", "0.25", "1" },
+    };
+
+    public static void main(String[] args) throws IOException {
+        Properties scenario = new Properties();
+        if (args.length > 0) {
+            try (Reader reader = new FileReader(args[0])) {
+                scenario.load(reader);
+            }
+        }
+
+        String name = scenario.getProperty("name", args.length > 0 ? new File(args[0]).getName().replaceFirst("\\.[^.]*$", "") : "default");
+        int frames = (int) (Double.parseDouble(scenario.getProperty("seconds", "600")) * FPS);
+        int warmupFrames = (int) (Double.parseDouble(scenario.getProperty("warmup.seconds", "10")) * FPS);
+        boolean display = Boolean.parseBoolean(scenario.getProperty("display", "false"));
+        File reportFile = new File(scenario.getProperty("report", name + "-report.json"));
+        String baselinePath = args.length > 1 ? args[1] : scenario.getProperty("baseline");
+
+        if (!display) {
+            System.setProperty("java.awt.headless", "true");
+        }
+        Path scratch = Files.createTempDirectory(Files.createDirectories(Paths.get("target")), "scenario-");
+        System.setProperty("betterenemy.checkpointLog", scratch.resolve("checkpoints").toString());
+        System.setProperty("betterenemy.brainMirror", scratch.resolve("ai_brain.dat").toString());
+        System.setProperty("betterenemy.telemetry", scratch.resolve("telemetry").toString());
+        System.setProperty("betterenemy.seed", scenario.getProperty("seed", "1"));
+        System.setProperty("betterenemy.scriptedPlayer", scenario.getProperty("player", "CHASER"));
+        System.setProperty("betterenemy.syncLearning", scenario.getProperty("syncLearning", "true"));
+        for (String key : scenario.stringPropertyNames()) {
+            if (key.startsWith("betterenemy.")) {
+                System.setProperty(key, scenario.getProperty(key));
+            }
+        }
+
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        threads.setThreadAllocatedMemoryEnabled(true);
+        long thread = Thread.currentThread().getId();
+
+        GamePanel panel = new GamePanel();
+        panel.setSize(panel.getPreferredSize());
+        JFrame window = null;
+        Graphics2D g2 = null;
+        Runnable render;
+        if (display) {
+            window = new JFrame("BetterEnemy scenario: " + name);
+            window.setResizable(false);
+            window.add(panel);
+            window.pack();
+            window.setVisible(true);
+            Runnable paint = () -> panel.paintImmediately(0, 0, panel.getWidth(), panel.getHeight());
+            render = () -> {
+                try {
+                    SwingUtilities.invokeAndWait(paint);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } catch (InvocationTargetException e) {
+                    throw new IllegalStateException("painting failed", e.getCause());
+                }
+            };
+        } else {
+            BufferedImage image = new BufferedImage(panel.screenWidth, panel.screenHeight, BufferedImage.TYPE_INT_RGB);
+            Graphics2D graphics = image.createGraphics();
+            g2 = graphics;
+            render = () -> panel.renderFrame(graphics);
+        }
+
+        System.out.printf("Scenario %s: %d frames (+%d warm-up), %s player, seed %s, %s%n", name, frames, warmupFrames,
+                System.getProperty("betterenemy.scriptedPlayer"), System.getProperty("betterenemy.seed"),
+                display ? "on screen" : "offscreen");
+        for (int i = 0; i < warmupFrames; i++) {
+            panel.update();
+            render.run();
+        }
+
+        Recording recording = new Recording();
+        recording.enable("jdk.GarbageCollection");
+        recording.enable("com.demo.LearnStep").withThreshold(Duration.ZERO);
+        long[] updateNanos = new long[frames];
+        long[] renderNanos = new long[frames];
+        long[] frameNanos = new long[frames];
+
+        recording.start();
+        long threadBytes = threads.getThreadAllocatedBytes(thread);
+        long totalBytes = totalAllocatedBytes(threads);
+        long start = System.nanoTime();
+        for (int i = 0; i < frames; i++) {
+            long frameStart = System.nanoTime();
+            panel.update();
+            long updated = System.nanoTime();
+            render.run();
+            long rendered = System.nanoTime();
+            updateNanos[i] = updated - frameStart;
+            renderNanos[i] = rendered - updated;
+            frameNanos[i] = rendered - frameStart;
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        threadBytes = threads.getThreadAllocatedBytes(thread) - threadBytes;
+        totalBytes = totalAllocatedBytes(threads) - totalBytes;
+        recording.stop();
+
+        if (g2 != null) {
+            g2.dispose();
+        }
+        if (window != null) {
+            window.dispose();
+        }
+
+        Path events = scratch.resolve("scenario.jfr");
+        recording.dump(events);
+        recording.close();
+        long gcCount = 0;
+        long gcPauseNanos = 0;
+        long gcMaxPauseNanos = 0;
+        long[] learnNanos = new long[1024];
+        int learnSteps = 0;
+        for (RecordedEvent event : RecordingFile.readAllEvents(events)) {
+            switch (event.getEventType().getName()) {
+                case "jdk.GarbageCollection":
+                    gcCount++;
+                    gcPauseNanos += event.getDuration("sumOfPauses").toNanos();
+                    gcMaxPauseNanos = Math.max(gcMaxPauseNanos, event.getDuration("longestPause").toNanos());
+                    break;
+                case "com.demo.LearnStep":
+                    if (learnSteps == learnNanos.length) {
+                        learnNanos = Arrays.copyOf(learnNanos, learnSteps * 2);
+                    }
+                    learnNanos[learnSteps++] = event.getDuration().toNanos();
+                    break;
+                default:
+                    break;
+            }
+        }
+        learnNanos = Arrays.copyOf(learnNanos, learnSteps);
+
+        Map<String, Double> metrics = new LinkedHashMap<>();
+        metrics.put("frames", (double) frames);
+        metrics.put("wall_seconds", seconds);
+        metrics.put("frames_per_second", frames / seconds);
+        metrics.put("frame_p50_ms", percentile(frameNanos, 0.50) / 1e6);
+        metrics.put("frame_p90_ms", percentile(frameNanos, 0.90) / 1e6);
+        metrics.put("frame_p99_ms", percentile(frameNanos, 0.99) / 1e6);
+        metrics.put("frame_p999_ms", percentile(frameNanos, 0.999) / 1e6);
+        metrics.put("frame_max_ms", percentile(frameNanos, 1.0) / 1e6);
+        metrics.put("update_p50_ms", percentile(updateNanos, 0.50) / 1e6);
+        metrics.put("update_p99_ms", percentile(updateNanos, 0.99) / 1e6);
+        metrics.put("render_p50_ms", percentile(renderNanos, 0.50) / 1e6);
+        metrics.put("render_p99_ms", percentile(renderNanos, 0.99) / 1e6);
+        metrics.put("gc_count", (double) gcCount);
+        metrics.put("gc_pause_total_ms", gcPauseNanos / 1e6);
+        metrics.put("gc_pause_max_ms", gcMaxPauseNanos / 1e6);
+        metrics.put("alloc_frame_bytes", (double) threadBytes / frames);
+        metrics.put("alloc_mb_per_s", totalBytes / 1e6 / seconds);
+        metrics.put("learn_steps", (double) learnSteps);
+        metrics.put("learn_mean_us", learnSteps == 0 ? 0 : Arrays.stream(learnNanos).sum() / 1e3 / learnSteps);
+        metrics.put("learn_p99_us", percentile(learnNanos, 0.99) / 1e3);
+
+        writeReport(reportFile, name, scenario, metrics);
+        for (Map.Entry<String, Double> metric : metrics.entrySet()) {
+            System.out.printf(Locale.ROOT, "  %-20s %12.3f%n", metric.getKey(), metric.getValue());
+        }
+        System.out.println("Report written to " + reportFile);
+
+        boolean failed = false;
+        if (baselinePath != null) {
+            File baselineFile = new File(baselinePath);
+            if (baselineFile.exists()) {
+                failed = compare(readMetrics(baselineFile), metrics, scenario);
+            } else {
+                writeReport(baselineFile, name, scenario, metrics);
+                System.out.println("No baseline at " + baselineFile + ", wrote this run as the baseline");
+            }
+        }
+        System.exit(failed ? 1 : 0);
+    }
+
+    private static long totalAllocatedBytes(com.sun.management.ThreadMXBean threads) {
+        long total = 0;
+        for (long bytes : threads.getThreadAllocatedBytes(threads.getAllThreadIds())) {
+            total += Math.max(0, bytes);
+        }
+        return total;
+    }
+
+    private static double percentile(long[] values, double p) {
+        if (values.length == 0) return 0;
+        long[] sorted = values.clone();
+        Arrays.sort(sorted);
+        int index = (int) Math.ceil(p * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(sorted.length - 1, index))];
+    }
+
+    private static boolean compare(Map<String, Double> baseline, Map<String, Double> metrics, Properties scenario) {
+        Map<String, double[]> checks = new LinkedHashMap<>();
+        for (String[] check : CHECKS) {
+            checks.put(check[0], new double[] { Double.parseDouble(check[1]), Double.parseDouble(check[2]) });
+        }
+        double defaultTolerance = Double.parseDouble(scenario.getProperty("tolerance", "-1"));
+        for (String key : scenario.stringPropertyNames()) {
+            if (key.startsWith("tolerance.") || key.startsWith("slack.")) {
+                checks.putIfAbsent(key.substring(key.indexOf('.') + 1), new double[2]);
+            }
+        }
+
+        boolean failed = false;
+        System.out.println();
+        System.out.printf("%-20s %12s %12s %9s %12s  %s%n", "metric", "baseline", "current", "change", "allowed", "result");
+        for (Map.Entry<String, double[]> check : checks.entrySet()) {
+            String metric = check.getKey();
+            Double before = baseline.get(metric);
+            Double after = metrics.get(metric);
+            if (before == null || after == null) {
+                System.out.printf("%-20s %12s %12s %9s %12s  %s%n", metric, "-", "-", "-", "-", "missing");
+                continue;
+            }
+            double tolerance = Double.parseDouble(scenario.getProperty("tolerance." + metric,
+                    String.valueOf(defaultTolerance >= 0 ? defaultTolerance : check.getValue()[0])));
+            double slack = Double.parseDouble(scenario.getProperty("slack." + metric, String.valueOf(check.getValue()[1])));
+            double allowed = before + Math.max(before * tolerance, slack);
+            boolean regressed = after > allowed;
+            failed |= regressed;
+            System.out.printf(Locale.ROOT, "%-20s %12.3f %12.3f %8.1f%% %12.3f  %s%n", metric, before, after,
+                    before == 0 ? 0 : 100 * (after - before) / before, allowed, regressed ? "REGRESSED" : "ok");
+        }
+        if (failed) {
+            System.out.println("FAIL: scenario regressed against the baseline");
+        }
+        return failed;
+    }
+
+    private static Map<String, Double> readMetrics(File file) {
+        try {
+            Map<String, Double> metrics = new LinkedHashMap<>();
+            Matcher matcher = NUMBER.matcher(Files.readString(file.toPath()));
+            while (matcher.find()) {
+                metrics.put(matcher.group(1), Double.parseDouble(matcher.group(2)));
+            }
+            return metrics;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read baseline " + file, e);
+        }
+    }
+
+    private static void writeReport(File file, String name, Properties scenario, Map<String, Double> metrics) {
+        File parent = file.getAbsoluteFile().getParentFile();
+        parent.mkdirs();
+        try (PrintWriter out = new PrintWriter(file, "UTF-8")) {
+            out.println("{");
+            out.printf("  \"scenario\": \"%s\",%n", name.replace("\\", "\\\\").replace("\"", "\\\""));
+            out.printf("  \"java\": \"%s\",%n", System.getProperty("java.version"));
+            out.printf("  \"processors\": %d,%n", Runtime.getRuntime().availableProcessors());
+            out.printf("  \"seed\": %s,%n", Long.parseLong(scenario.getProperty("seed", "1")));
+            out.printf("  \"player\": \"%s\",%n", System.getProperty("betterenemy.scriptedPlayer"));
+            out.println("  \"metrics\": {");
+            int i = 0;
+            for (Map.Entry<String, Double> metric : metrics.entrySet()) {
+                out.printf(Locale.ROOT, "    \"%s\": %.4f%s%n", metric.getKey(), metric.getValue(),
+                        ++i < metrics.size() ? "," : "");
+            }
+            out.println("  }");
+            out.println("}");
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not write report " + file, e);
+        }
+    }
+}
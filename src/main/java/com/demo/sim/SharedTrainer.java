@@ -0,0 +1,80 @@
+package com.demo.sim;
+
+import java.io.File;
+
+import com.demo.Arena;
+import com.demo.Match;
+import com.demo.ai.NeuralNetwork;
+import com.demo.ai.SharedWeights;
+import com.demo.ai.TrainingConfig;
+import com.demo.entity.AIPlayer;
+import com.demo.entity.ScriptedFighter;
+
+public class SharedTrainer {
+    public static void main(String[] args) throws InterruptedException {
+        String command = args.length > 0 ? args[0] : "train";
+        File file = new File(args.length > 1 ? args[1] : "shared_brain.bin");
+
+        switch (command) {
+            case "train":
+                train(file, args.length > 2 ? Integer.parseInt(args[2]) : 1,
+                        args.length > 3 ? Long.parseLong(args[3]) : ProcessHandle.current().pid(),
+                        args.length > 4 ? ScriptedFighter.Script.valueOf(args[4]) : ScriptedFighter.Script.CHASER);
+                break;
+            case "watch":
+                watch(file, args.length > 2 ? Integer.parseInt(args[2]) : 20);
+                break;
+            default:
+                System.err.println("usage: SharedTrainer train [file] [syncRounds] [seed] [opponent] | watch [file] [evalRounds]");
+                System.exit(1);
+        }
+    }
+
+    private static NeuralNetwork template() {
+        NeuralNetwork brain = NeuralNetwork.load("ai_brain.dat");
+        return brain != null ? brain : new TrainingConfig().newNetwork(6);
+    }
+
+    private static void train(File file, int syncRounds, long seed, ScriptedFighter.Script opponent) {
+        Arena arena = Arena.standard();
+        ScriptedFighter bot = new ScriptedFighter(arena, opponent, seed);
+        AIPlayer ai = new AIPlayer(arena, bot, new TrainingConfig(), template());
+        ai.setSeed(seed);
+        bot.setOpponent(ai);
+
+        try (SharedWeights shared = SharedWeights.open(file, ai.getBrain())) {
+            ai.setWeightSync(shared, syncRounds);
+            Match match = new Match(bot, ai, 0);
+            match.setRoundTimeLimit(HeadlessTrainer.ROUND_TIME_LIMIT);
+
+            int reported = 0;
+            while (true) {
+                match.update();
+                if (ai.getRounds() != reported && ai.getRounds() % 50 == 0) {
+                    reported = ai.getRounds();
+                    System.out.printf("rounds %d  wins %d  epsilon %.3f  shared version %d%n",
+                            reported, ai.getWins(), ai.getEpsilon(), shared.getVersion());
+                }
+            }
+        }
+    }
+
+    private static void watch(File file, int evalRounds) throws InterruptedException {
+        TrainingConfig config = new TrainingConfig();
+        Arena arena = Arena.standard();
+        ScriptedFighter bot = new ScriptedFighter(arena, ScriptedFighter.Script.CHASER, 1L);
+        AIPlayer ai = new AIPlayer(arena, bot, config, template());
+        NeuralNetwork network = ai.getBrain();
+
+        try (SharedWeights shared = SharedWeights.open(file, network)) {
+            while (true) {
+                if (shared.refresh(network)) {
+                    double winRate = HeadlessTrainer.winRate(network, config, ScriptedFighter.Script.CHASER, evalRounds, 1L);
+                    System.out.printf("version %d  win rate %.2f  seqlock retries %d%n",
+                            shared.getVersion(), winRate, shared.getRetries());
+                }
+                Thread.sleep(1000);
+            }
+        }
+    }
+}
@@ -0,0 +1,162 @@
+package com.demo.sim;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.locks.LockSupport;
+
+import com.demo.Arena;
+import com.demo.Match;
+import com.demo.RenderSnapshot;
+import com.demo.SpectatorServer;
+import com.demo.ai.TrainingConfig;
+import com.demo.entity.AIPlayer;
+import com.demo.entity.ScriptedFighter;
+
+public class SpectatorBench {
+    private static class Client {
+        final ByteBuffer in = ByteBuffer.allocate(16 << 10);
+        long frames;
+        long keyFrames;
+        long bytes;
+        boolean startedOnKey = true;
+    }
+
+    public static void main(String[] args) throws IOException {
+        int clientCount = args.length > 0 ? Integer.parseInt(args[0]) : 200;
+        int stalledCount = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+        int seconds = args.length > 2 ? Integer.parseInt(args[2]) : 10;
+
+        Arena arena = Arena.standard();
+        ScriptedFighter bot = new ScriptedFighter(arena, ScriptedFighter.Script.CHASER, 1L);
+        TrainingConfig config = new TrainingConfig();
+        AIPlayer ai = new AIPlayer(arena, bot, config, config.newNetwork(6));
+        ai.setLearning(false);
+        ai.setSeed(1L);
+        bot.setOpponent(ai);
+        Match match = new Match(bot, ai, 180);
+        match.setRoundTimeLimit(HeadlessTrainer.ROUND_TIME_LIMIT);
+        RenderSnapshot snapshot = new RenderSnapshot(0);
+
+        try (SpectatorServer server = new SpectatorServer("127.0.0.1", 0, 60, 240).start()) {
+            InetSocketAddress address = new InetSocketAddress("127.0.0.1", server.getPort());
+            Selector selector = Selector.open();
+            List<Client> clients = new ArrayList<>();
+            List<SocketChannel> stalled = new ArrayList<>();
+            for (int i = 0; i < clientCount + stalledCount; i++) {
+                SocketChannel channel = SocketChannel.open(address);
+                if (i < clientCount) {
+                    channel.configureBlocking(false);
+                    Client client = new Client();
+                    channel.register(selector, SelectionKey.OP_READ, client);
+                    clients.add(client);
+                } else {
+                    stalled.add(channel);
+                }
+            }
+            Thread reader = new Thread(() -> read(selector), "spectator-clients");
+            reader.setDaemon(true);
+            reader.start();
+
+            System.out.printf("Broadcasting %d s to %d reading and %d stalled viewers%n", seconds, clientCount, stalledCount);
+            long frameNanos = 1_000_000_000L / 60;
+            long next = System.nanoTime();
+            long publishNanos = 0;
+            long maxPublishNanos = 0;
+            int ticks = seconds * 60;
+            for (int t = 1; t <= ticks; t++) {
+                match.update();
+                bot.capture(snapshot.left);
+                ai.capture(snapshot.right);
+                snapshot.tick = t;
+                snapshot.roundOver = match.isRoundOver();
+                snapshot.rightWon = match.getLastWinner() == ai;
+                snapshot.roundDelay = match.getRoundDelay();
+                snapshot.leftWins = match.getLeftWins();
+                snapshot.rightWins = match.getRightWins();
+
+                long start = System.nanoTime();
+                server.publish(snapshot);
+                long elapsed = System.nanoTime() - start;
+                publishNanos += elapsed;
+                maxPublishNanos = Math.max(maxPublishNanos, elapsed);
+
+                next += frameNanos;
+                long wait = next - System.nanoTime();
+                if (wait > 0) LockSupport.parkNanos(wait);
+            }
+            LockSupport.parkNanos(200_000_000L);
+            selector.close();
+
+            long minFrames = Long.MAX_VALUE;
+            long totalFrames = 0;
+            long keyed = 0;
+            for (Client client : clients) {
+                minFrames = Math.min(minFrames, client.frames);
+                totalFrames += client.frames;
+                if (client.startedOnKey) keyed++;
+            }
+            long encoded = server.getEncodedFrames();
+            System.out.printf("Encoded %d frames (%d key), %.1f bytes/frame on average, %d dropped by the game thread%n",
+                    encoded, server.getKeyFrames(), (double) server.getEncodedBytes() / Math.max(1, encoded), server.getDropped());
+            System.out.printf("Delivered %d frames (%.1f MB), min %d / mean %.0f per reading viewer, %d/%d started on a key frame%n",
+                    server.getFramesSent(), server.getBytesOut() / 1e6, minFrames, (double) totalFrames / Math.max(1, clients.size()),
+                    keyed, clients.size());
+            System.out.printf("Resyncs %d, disconnects %d, publish cost %.2f us mean / %.1f us max%n",
+                    server.getResyncs(), server.getDisconnected(), publishNanos / 1e3 / ticks, maxPublishNanos / 1e3);
+            for (SocketChannel channel : stalled) {
+                channel.close();
+            }
+        }
+    }
+
+    private static void read(Selector selector) {
+        try {
+            while (selector.isOpen()) {
+                selector.select(100);
+                if (!selector.isOpen()) break;
+                Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                while (keys.hasNext()) {
+                    SelectionKey key = keys.next();
+                    keys.remove();
+                    Client client = (Client) key.attachment();
+                    SocketChannel channel = (SocketChannel) key.channel();
+                    int n = channel.read(client.in);
+                    if (n < 0) {
+                        key.cancel();
+                        channel.close();
+                        continue;
+                    }
+                    client.bytes += n;
+                    count(client);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } catch (RuntimeException e) {
+            if (selector.isOpen()) throw e;
+        }
+    }
+
+    private static void count(Client client) {
+        ByteBuffer in = client.in;
+        in.flip();
+        while (in.remaining() >= Integer.BYTES + 1) {
+            int length = in.getInt(in.position());
+            if (in.remaining() < Integer.BYTES + length) break;
+            boolean key = in.get(in.position() + Integer.BYTES) == 1;
+            if (client.frames == 0 && !key) client.startedOnKey = false;
+            if (key) client.keyFrames++;
+            client.frames++;
+            in.position(in.position() + Integer.BYTES + length);
+        }
+        in.compact();
+    }
+}
@@ -0,0 +1,190 @@
+package com.demo.sim;
+
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Properties;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+import com.demo.ai.NeuralNetwork;
+import com.demo.ai.TrainingConfig;
+import com.demo.entity.ScriptedFighter;
+
+public class SweepRunner {
+    private static final String[] PARAMETERS = {
+        "epsilon", "epsilonDecay", "epsilonMin", "gamma", "hiddenSize", "hiddenLayers", "learningRate", "decisionInterval",
+        "historyLength", "actionHistory"
+    };
+
+    static class Trial {
+        final int id;
+        final TrainingConfig config;
+        NeuralNetwork network;
+        long ticks;
+        double winRate;
+        double seconds;
+
+        Trial(int id, TrainingConfig config) {
+            this.id = id;
+            this.config = config;
+        }
+
+        double getEfficiency() {
+            return ticks == 0 ? 0 : winRate / (ticks / 1_000_000.0);
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        Properties spec = new Properties();
+        if (args.length > 0) {
+            try (Reader reader = new FileReader(args[0])) {
+                spec.load(reader);
+            }
+        }
+
+        String mode = spec.getProperty("mode", "grid");
+        long seed = Long.parseLong(spec.getProperty("seed", "1"));
+        long tickBudget = Long.parseLong(spec.getProperty("budget.ticks", "500000"));
+        double secondBudget = Double.parseDouble(spec.getProperty("budget.seconds", "60"));
+        int evalRounds = Integer.parseInt(spec.getProperty("eval.rounds", "100"));
+        ScriptedFighter.Script opponent = ScriptedFighter.Script.valueOf(spec.getProperty("opponent", "CHASER"));
+        File outputDir = new File(spec.getProperty("output", "sweep"));
+        int parallelism = Integer.parseInt(spec.getProperty("parallelism",
+                String.valueOf(Runtime.getRuntime().availableProcessors())));
+
+        List<TrainingConfig> configs = "random".equals(mode)
+                ? randomConfigs(spec, Integer.parseInt(spec.getProperty("samples", "16")), new Random(seed))
+                : gridConfigs(spec);
+
+        List<Trial> trials = new ArrayList<>();
+        for (int i = 0; i < configs.size(); i++) {
+            trials.add(new Trial(i, configs.get(i)));
+        }
+        System.out.printf("Running %d configurations on %d threads (%s, %d ticks / %.0f s each)%n",
+                trials.size(), parallelism, mode, tickBudget, secondBudget);
+
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        List<ForkJoinTask<?>> tasks = new ArrayList<>();
+        for (Trial trial : trials) {
+            tasks.add(pool.submit(() -> run(trial, opponent, seed, tickBudget, secondBudget, evalRounds)));
+        }
+        for (ForkJoinTask<?> task : tasks) {
+            task.join();
+        }
+        pool.shutdown();
+
+        trials.sort(Comparator.comparingDouble(Trial::getEfficiency).reversed());
+        report(trials, outputDir);
+    }
+
+    private static void run(Trial trial, ScriptedFighter.Script opponent, long seed,
+                            long tickBudget, double secondBudget, int evalRounds) {
+        long start = System.nanoTime();
+        long deadline = start + (long) (secondBudget * 1e9);
+
+        trial.network = trial.config.newNetwork(6);
+        trial.ticks = HeadlessTrainer.train(trial.network, trial.config, opponent, seed + trial.id, tickBudget, deadline);
+        trial.winRate = HeadlessTrainer.winRate(trial.network, trial.config, opponent, evalRounds, seed + 1_000_000L);
+        trial.seconds = (System.nanoTime() - start) / 1e9;
+
+        System.out.printf("  #%d done: win %.1f%% after %d ticks (%.1f s)%n",
+                trial.id, 100 * trial.winRate, trial.ticks, trial.seconds);
+    }
+
+    private static void report(List<Trial> trials, File outputDir) throws IOException {
+        outputDir.mkdirs();
+
+        System.out.println();
+        System.out.printf("%-5s %-4s %10s %8s %12s  %s%n", "rank", "id", "ticks", "win%", "win/Mtick", "config");
+        try (PrintWriter csv = new PrintWriter(new File(outputDir, "report.csv"))) {
+            csv.println("rank,id,ticks,win_rate,win_rate_per_million_ticks,seconds,"
+                    + "epsilon,epsilon_decay,epsilon_min,gamma,hidden_size,hidden_layers,learning_rate,decision_interval,"
+                    + "history_length,action_history");
+            for (int rank = 0; rank < trials.size(); rank++) {
+                Trial t = trials.get(rank);
+                TrainingConfig c = t.config;
+                System.out.printf("%-5d %-4d %10d %8.1f %12.3f  %s%n",
+                        rank + 1, t.id, t.ticks, 100 * t.winRate, t.getEfficiency(), c);
+                csv.printf("%d,%d,%d,%.4f,%.4f,%.2f,%s,%s,%s,%s,%d,%d,%s,%d,%d,%d%n",
+                        rank + 1, t.id, t.ticks, t.winRate, t.getEfficiency(), t.seconds,
+                        c.epsilon, c.epsilonDecay, c.epsilonMin, c.gamma, c.hiddenSize, c.hiddenLayers, c.learningRate, c.decisionInterval,
+                        c.historyLength, c.actionHistory);
+            }
+        }
+
+        if (!trials.isEmpty()) {
+            File best = new File(outputDir, "best.dat");
+            trials.get(0).network.save(best.getPath());
+            System.out.println("Best checkpoint saved to " + best);
+        }
+    }
+
+    private static List<TrainingConfig> gridConfigs(Properties spec) {
+        List<TrainingConfig> configs = new ArrayList<>();
+        configs.add(new TrainingConfig());
+        for (String parameter : PARAMETERS) {
+            String values = spec.getProperty(parameter);
+            if (values == null) continue;
+
+            List<TrainingConfig> expanded = new ArrayList<>();
+            for (TrainingConfig base : configs) {
+                for (String value : values.split(",")) {
+                    TrainingConfig config = base.copy();
+                    set(config, parameter, Double.parseDouble(value.trim()));
+                    expanded.add(config);
+                }
+            }
+            configs = expanded;
+        }
+        return configs;
+    }
+
+    private static List<TrainingConfig> randomConfigs(Properties spec, int samples, Random random) {
+        List<TrainingConfig> configs = new ArrayList<>();
+        for (int i = 0; i < samples; i++) {
+            TrainingConfig config = new TrainingConfig();
+            for (String parameter : PARAMETERS) {
+                String values = spec.getProperty(parameter);
+                if (values != null) {
+                    set(config, parameter, sample(values, random));
+                }
+            }
+            configs.add(config);
+        }
+        return configs;
+    }
+
+    private static double sample(String values, Random random) {
+        int range = values.indexOf("..");
+        if (range >= 0) {
+            double lo = Double.parseDouble(values.substring(0, range).trim());
+            double hi = Double.parseDouble(values.substring(range + 2).trim());
+            return lo + random.nextDouble() * (hi - lo);
+        }
+        String[] choices = values.split(",");
+        return Double.parseDouble(choices[random.nextInt(choices.length)].trim());
+    }
+
+    private static void set(TrainingConfig config, String parameter, double value) {
+        switch (parameter) {
+            case "epsilon": config.epsilon = value; break;
+            case "epsilonDecay": config.epsilonDecay = value; break;
+            case "epsilonMin": config.epsilonMin = value; break;
+            case "gamma": config.gamma = value; break;
+            case "hiddenSize": config.hiddenSize = (int) Math.round(value); break;
+            case "hiddenLayers": config.hiddenLayers = Math.max(1, (int) Math.round(value)); break;
+            case "learningRate": config.learningRate = value; break;
+            case "decisionInterval": config.decisionInterval = Math.max(1, (int) Math.round(value)); break;
+            case "historyLength": config.historyLength = Math.max(0, (int) Math.round(value)); break;
+            case "actionHistory": config.actionHistory = Math.max(0, (int) Math.round(value)); break;
+            default: throw new IllegalArgumentException("Unknown parameter " + parameter);
+        }
+    }
+}